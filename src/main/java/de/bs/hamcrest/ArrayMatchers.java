@@ -1,14 +1,38 @@
 package de.bs.hamcrest;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
+import de.bs.hamcrest.internal.ArrayDiff;
+import de.bs.hamcrest.internal.SortedArrays;
+
+/**
+ * All matchers created by this class are immutable and can be shared between threads, for example
+ * in static fields. arrayHasLength returns the same instance for the same length from 0 to 255,
+ * sortedIntArray and sortedLongArray always the same instance.
+ */
 public class ArrayMatchers {
+	// canonical instances for small lengths only, so arbitrary lengths do not fill a cache
+	private static final int CACHED_LENGTHS = 256;
+	private static final List<Matcher<Object[]>> ARRAY_HAS_LENGTH = new ArrayList<Matcher<Object[]>>(CACHED_LENGTHS);
+	private static final Matcher<int[]> SORTED_INT_ARRAY = createSortedIntArray();
+	private static final Matcher<long[]> SORTED_LONG_ARRAY = createSortedLongArray();
+	
+	static {
+		for (int length = 0; length < CACHED_LENGTHS; length++) {
+			ARRAY_HAS_LENGTH.add(ArrayMatchers.<Object>createArrayHasLength(length));
+		}
+	}
+	
 	/**
 	 * Create a matcher that match examined array has the size of the operand. It 
 	 * also can operate on multiarrays, but be careful, on which dimension.
@@ -19,9 +43,18 @@ public class ArrayMatchers {
 	 *	assertThat(new String[][]{{"a", "b"}}, arrayHasLength(1));
 	 * </pre>
 	 * @param length that the examined array is expected to have.
-	 * @return
+	 * @return the same instance for the same length from 0 to 255, a new one for other lengths
 	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
 	public static <T> Matcher<T[]> arrayHasLength(final int length) {
+		if (length < 0 || length >= CACHED_LENGTHS) {
+			return createArrayHasLength(length);
+		}
+		// the element type is erased, the same instance matches every array type
+		return (Matcher)ARRAY_HAS_LENGTH.get(length);
+	}
+	
+	private static <T> Matcher<T[]> createArrayHasLength(final int length) {
 		return new TypeSafeDiagnosingMatcher<T[]>() {
 			public void describeTo(Description description) {
 				description.appendText("Array Length should be ").appendValue(length);
@@ -94,6 +127,37 @@ public class ArrayMatchers {
 		};
 	}
 	
+	/**
+	 * Create a matcher that examines, if the array is equal to the expected array, element by element
+	 * with equals. When it fails, the mismatch is described as an edit script of inserted, missing and
+	 * replaced ranges, not as a dump of the whole array. The diff runs in linear space, and for very
+	 * different huge arrays it stops refining after a fixed amount of work and reports coarse ranges.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new String[]{"a", "b", "c"}, arrayEqualTo("a", "b", "c"));
+	 * 	// mismatch for {"a", "x", "b", "c"}: differs in 1 hunk: inserted at [1] ["x"]
+	 * </pre>
+	 * @param expectedItems
+	 * @return
+	 */
+	public static <T> Matcher<T[]> arrayEqualTo(T... expectedItems) {
+		final Object[] expected = expectedItems.clone();
+		return new TypeSafeDiagnosingMatcher<T[]>() {
+			public void describeTo(Description description) {
+				description.appendText("array equal to an array of length ").appendValue(expected.length);
+			}
+			@Override
+			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
+				if (Arrays.equals(expected, item)) {
+					return true;
+				}
+				ArrayDiff.diff(expected, item).describeTo(mismatchDescription);
+				return false;
+			}
+		};
+	}
+	
 	/**
 	 * Create a matcher that examined the array, if it contains a given list of elements.
 	 * <p>
@@ -105,27 +169,362 @@ public class ArrayMatchers {
 	 * @param excpectedItems
 	 * @return
 	 */
-	public static <T> Matcher<T[]> arrayHasItems(final T... excpectedItems) {
+	public static <T> Matcher<T[]> arrayHasItems(T... excpectedItems) {
+		// copy, so later changes to the given array do not change the matcher
+		final T[] expectedItems = excpectedItems.clone();
 		return new TypeSafeDiagnosingMatcher<T[]>() {
 			public void describeTo(Description description) {
-				description.appendText("must contain following elements ").appendValueList("[", ",", "]", excpectedItems);
+				description.appendText("must contain following elements ").appendValueList("[", ",", "]", expectedItems);
 			}
 			@Override
 			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
-				if (excpectedItems.length > 0 && excpectedItems[0].getClass().isArray()) {
+				if (expectedItems.length > 0 && expectedItems[0].getClass().isArray()) {
 					throw new IllegalArgumentException("Cannot check for arrays");
 				}
 				Set<T> values = new HashSet<T>(Arrays.asList(item));
 //				Set<T> expected = new HashSet<T>(Arrays.asList(excpectedItems));
 //				expected.removeAll(values);
 				mismatchDescription.appendText("Following Elements are in the array ").appendValueList("[", ",", "]", values);
-				return values.containsAll(Arrays.asList(excpectedItems));
+				return values.containsAll(Arrays.asList(expectedItems));
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines, if every element of the array is in a (large) set of allowed
+	 * values. The bloom filter rejects most elements that are not allowed, without touching the
+	 * exact check. Only the elements that pass the filter are checked with exactCheck, which can be
+	 * slow (like a lookup in a database or a sorted file), as it is called for few elements only.
+	 * The memory footprint is chosen when the filter is created, see BloomFilter.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	BloomFilter&lt;Long&gt; filter = BloomFilter.of(knownIds, knownIds.size(), 8);
+	 * 	assertThat(ids, arrayItemsIn(filter, isKnownId));
+	 * </pre>
+	 * @param filter containing all allowed values
+	 * @param exactCheck that returns true for allowed values only
+	 * @return
+	 */
+	public static <T> Matcher<T[]> arrayItemsIn(final BloomFilter<? super T> filter, final Predicate<? super T> exactCheck) {
+		return new TypeSafeDiagnosingMatcher<T[]>() {
+			public void describeTo(Description description) {
+				description.appendText("all elements must be in the allowed values");
+			}
+			@Override
+			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
+				int mismatches = 0;
+				for (int i = 0; i < item.length; i++) {
+					if (!filter.mightContain(item[i]) || !exactCheck.test(item[i])) {
+						if (mismatches < 10) {
+							mismatchDescription.appendText(mismatches == 0 ? "not allowed: " : ", ")
+								.appendText("[").appendText(String.valueOf(i)).appendText("]=").appendValue(item[i]);
+						}
+						mismatches++;
+					}
+				}
+				if (mismatches > 10) {
+					mismatchDescription.appendText(" and ").appendValue(mismatches - 10).appendText(" more");
+				}
+				return mismatches == 0;
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines in one pass, if the array is sorted by the given comparator.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new String[]{"a", "b", "b"}, sortedArray(Comparator.&lt;String&gt;naturalOrder()));
+	 * </pre>
+	 * @param comparator
+	 * @return
+	 */
+	public static <T> Matcher<T[]> sortedArray(final Comparator<? super T> comparator) {
+		return new TypeSafeDiagnosingMatcher<T[]>() {
+			public void describeTo(Description description) {
+				description.appendText("array sorted by ").appendValue(comparator);
+			}
+			@Override
+			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
+				int index = SortedArrays.unsortedAt(item, comparator);
+				if (index >= 0) {
+					appendUnsorted(mismatchDescription, index, item[index], item[index + 1]);
+				}
+				return index < 0;
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines in one pass, if the int array is sorted ascending.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new int[]{1, 2, 2, 5}, sortedIntArray());
+	 * </pre>
+	 * @return always the same instance
+	 */
+	public static Matcher<int[]> sortedIntArray() {
+		return SORTED_INT_ARRAY;
+	}
+	
+	private static Matcher<int[]> createSortedIntArray() {
+		return new TypeSafeDiagnosingMatcher<int[]>() {
+			public void describeTo(Description description) {
+				description.appendText("int array sorted ascending");
+			}
+			@Override
+			protected boolean matchesSafely(int[] item, Description mismatchDescription) {
+				int index = SortedArrays.unsortedAt(item);
+				if (index >= 0) {
+					appendUnsorted(mismatchDescription, index, item[index], item[index + 1]);
+				}
+				return index < 0;
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines in one pass, if the long array is sorted ascending.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new long[]{1, 2, 2, 5}, sortedLongArray());
+	 * </pre>
+	 * @return always the same instance
+	 */
+	public static Matcher<long[]> sortedLongArray() {
+		return SORTED_LONG_ARRAY;
+	}
+	
+	private static Matcher<long[]> createSortedLongArray() {
+		return new TypeSafeDiagnosingMatcher<long[]>() {
+			public void describeTo(Description description) {
+				description.appendText("long array sorted ascending");
+			}
+			@Override
+			protected boolean matchesSafely(long[] item, Description mismatchDescription) {
+				int index = SortedArrays.unsortedAt(item);
+				if (index >= 0) {
+					appendUnsorted(mismatchDescription, index, item[index], item[index + 1]);
+				}
+				return index < 0;
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines, if the array contains all the given keys, like arrayHasItems. 
+	 * The examined array must be sorted by the comparator, what is not verified (combine it with
+	 * sortedArray for that). The keys are searched in their order by galloping from the position of
+	 * the previous key, so a few keys in a huge array cost only some comparisons.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(sortedIds, sortedArrayHasItems(Comparator.&lt;String&gt;naturalOrder(), "a", "x"));
+	 * 	assertThat(sortedIds, allOf(sortedArray(comparator), sortedArrayHasItems(comparator, "a", "x")));
+	 * </pre>
+	 * @param comparator the examined array is sorted by
+	 * @param keys
+	 * @return
+	 */
+	public static <T> Matcher<T[]> sortedArrayHasItems(final Comparator<? super T> comparator, T... keys) {
+		final T[] sortedKeys = keys.clone();
+		Arrays.sort(sortedKeys, comparator);
+		return new TypeSafeDiagnosingMatcher<T[]>() {
+			public void describeTo(Description description) {
+				description.appendText("sorted array must contain following elements ").appendValueList("[", ",", "]", sortedKeys);
+			}
+			@Override
+			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
+				List<Object> missing = new ArrayList<Object>();
+				int position = 0;
+				for (T key: sortedKeys) {
+					position = SortedArrays.gallop(item, position, key, comparator);
+					if (position == item.length || comparator.compare(item[position], key) != 0) {
+						missing.add(key);
+					}
+				}
+				mismatchDescription.appendText("missing elements ").appendValueList("[", ",", "]", missing);
+				return missing.isEmpty();
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines, if the ascending sorted int array contains all the given keys.
+	 * See sortedArrayHasItems(Comparator, T...).
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new int[]{1, 3, 5, 7}, sortedArrayHasItems(3, 7));
+	 * </pre>
+	 * @param keys
+	 * @return
+	 */
+	public static Matcher<int[]> sortedArrayHasItems(int... keys) {
+		final int[] sortedKeys = keys.clone();
+		Arrays.sort(sortedKeys);
+		return new TypeSafeDiagnosingMatcher<int[]>() {
+			public void describeTo(Description description) {
+				description.appendText("sorted array must contain following elements ").appendValue(sortedKeys);
+			}
+			@Override
+			protected boolean matchesSafely(int[] item, Description mismatchDescription) {
+				List<Object> missing = new ArrayList<Object>();
+				int position = 0;
+				for (int key: sortedKeys) {
+					position = SortedArrays.gallop(item, position, key);
+					if (position == item.length || item[position] != key) {
+						missing.add(key);
+					}
+				}
+				mismatchDescription.appendText("missing elements ").appendValueList("[", ",", "]", missing);
+				return missing.isEmpty();
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that examines, if the ascending sorted long array contains all the given keys.
+	 * See sortedArrayHasItems(Comparator, T...).
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new long[]{1, 3, 5, 7}, sortedArrayHasItems(3L, 7L));
+	 * </pre>
+	 * @param keys
+	 * @return
+	 */
+	public static Matcher<long[]> sortedArrayHasItems(long... keys) {
+		final long[] sortedKeys = keys.clone();
+		Arrays.sort(sortedKeys);
+		return new TypeSafeDiagnosingMatcher<long[]>() {
+			public void describeTo(Description description) {
+				description.appendText("sorted array must contain following elements ").appendValue(sortedKeys);
+			}
+			@Override
+			protected boolean matchesSafely(long[] item, Description mismatchDescription) {
+				List<Object> missing = new ArrayList<Object>();
+				int position = 0;
+				for (long key: sortedKeys) {
+					position = SortedArrays.gallop(item, position, key);
+					if (position == item.length || item[position] != key) {
+						missing.add(key);
+					}
+				}
+				mismatchDescription.appendText("missing elements ").appendValueList("[", ",", "]", missing);
+				return missing.isEmpty();
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that counts the elements between from and to (both inclusive) of the array,
+	 * sorted by the comparator, with two binary searches, and matches the count against the Matcher
+	 * for integer. The sort order is not verified, see sortedArray.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(sortedNames, sortedArrayCountInRange(comparator, "a", "c", greaterThan(0)));
+	 * </pre>
+	 * @param comparator the examined array is sorted by
+	 * @param from
+	 * @param to
+	 * @param matcher that matches the number of elements in the range
+	 * @return
+	 */
+	public static <T> Matcher<T[]> sortedArrayCountInRange(final Comparator<? super T> comparator, final T from, final T to,
+			final Matcher<Integer> matcher) {
+		return new TypeSafeDiagnosingMatcher<T[]>() {
+			public void describeTo(Description description) {
+				description.appendText("number of elements from ").appendValue(from).appendText(" to ").appendValue(to).appendText(", ");
+				matcher.describeTo(description);
+			}
+			@Override
+			protected boolean matchesSafely(T[] item, Description mismatchDescription) {
+				int count = 0;
+				if (comparator.compare(from, to) <= 0) {
+					int lower = SortedArrays.lowerBound(item, 0, item.length, from, comparator);
+					int upper = SortedArrays.upperBound(item, lower, item.length, to, comparator);
+					count = upper - lower;
+				}
+				matcher.describeMismatch(count, mismatchDescription);
+				return matcher.matches(count);
 			}
 		};
 	}
+	
+	/**
+	 * Create a matcher that counts the elements between from and to (both inclusive) of the ascending 
+	 * sorted int array with two binary searches, see sortedArrayCountInRange(Comparator, T, T, Matcher).
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new int[]{1, 3, 5, 7}, sortedArrayCountInRange(2, 6, equalTo(2)));
+	 * </pre>
+	 * @param from
+	 * @param to
+	 * @param matcher that matches the number of elements in the range
+	 * @return
+	 */
+	public static Matcher<int[]> sortedArrayCountInRange(final int from, final int to, final Matcher<Integer> matcher) {
+		return new TypeSafeDiagnosingMatcher<int[]>() {
+			public void describeTo(Description description) {
+				description.appendText("number of elements from ").appendValue(from).appendText(" to ").appendValue(to).appendText(", ");
+				matcher.describeTo(description);
+			}
+			@Override
+			protected boolean matchesSafely(int[] item, Description mismatchDescription) {
+				int count = 0;
+				if (from <= to) {
+					int lower = SortedArrays.lowerBound(item, 0, item.length, from);
+					int upper = to == Integer.MAX_VALUE ? item.length : SortedArrays.lowerBound(item, lower, item.length, to + 1);
+					count = upper - lower;
+				}
+				matcher.describeMismatch(count, mismatchDescription);
+				return matcher.matches(count);
+			}
+		};
+	}
+	
+	/**
+	 * Create a matcher that counts the elements between from and to (both inclusive) of the ascending 
+	 * sorted long array with two binary searches, see sortedArrayCountInRange(Comparator, T, T, Matcher).
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(new long[]{1, 3, 5, 7}, sortedArrayCountInRange(2L, 6L, equalTo(2)));
+	 * </pre>
+	 * @param from
+	 * @param to
+	 * @param matcher that matches the number of elements in the range
+	 * @return
+	 */
+	public static Matcher<long[]> sortedArrayCountInRange(final long from, final long to, final Matcher<Integer> matcher) {
+		return new TypeSafeDiagnosingMatcher<long[]>() {
+			public void describeTo(Description description) {
+				description.appendText("number of elements from ").appendValue(from).appendText(" to ").appendValue(to).appendText(", ");
+				matcher.describeTo(description);
+			}
+			@Override
+			protected boolean matchesSafely(long[] item, Description mismatchDescription) {
+				int count = 0;
+				if (from <= to) {
+					int lower = SortedArrays.lowerBound(item, 0, item.length, from);
+					int upper = to == Long.MAX_VALUE ? item.length : SortedArrays.lowerBound(item, lower, item.length, to + 1);
+					count = upper - lower;
+				}
+				matcher.describeMismatch(count, mismatchDescription);
+				return matcher.matches(count);
+			}
+		};
+	}
+	
+	private static void appendUnsorted(final Description mismatchDescription, final int index, final Object value, final Object next) {
+		mismatchDescription.appendText("not sorted at [").appendText(String.valueOf(index)).appendText("]: ")
+			.appendValue(value).appendText(" before ").appendValue(next);
+	}
 }
-
-
-
-
-
@@ -0,0 +1,79 @@
+package de.bs.hamcrest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import de.bs.hamcrest.internal.Eventually;
+import de.bs.hamcrest.internal.RunOnceDiagnosingMatcher;
+
+/**
+ * Matchers created by eventually can be shared between threads, for example in static fields, every
+ * match starts its own polling. The mismatch description of a failed polling is only reported to the
+ * thread that polled.
+ */
+public class AsyncMatchers {
+	/**
+	 * Starts polling the supplier until its value matches the given matcher, or the timeout expires.
+	 * The returned future completes with true as soon as the condition holds, and with false after
+	 * the timeout. All pending checks share one scheduler thread and back off from 1ms up to 100ms
+	 * between polls, so thousands of checks can be pending without a thread each. The supplier is
+	 * called on the scheduler thread and should therefore return quickly; exceptions and errors 
+	 * (like AssertionError) thrown by it or by the matcher count as a mismatch. The future is 
+	 * completed on the common ForkJoinPool, not on the scheduler thread, so dependent stages 
+	 * (thenApply, thenAccept, ...) run there and do not delay the other pending checks. Use the 
+	 * ...Async variants with an own executor for blocking callbacks.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	CompletableFuture&lt;Boolean&gt; verdict = eventuallyAsync(() -> cache.get("key"), equalTo("value"), 5, SECONDS);
+	 * 	assertTrue(verdict.get());
+	 * </pre>
+	 * @param supplier
+	 * @param matcher
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public static <T> CompletableFuture<Boolean> eventuallyAsync(final Supplier<? extends T> supplier, final Matcher<? super T> matcher,
+			final long timeout, final TimeUnit unit) {
+		return Eventually.poll(supplier, matcher, timeout, unit).verdict();
+	}
+
+	/**
+	 * Creates a matcher that polls the examined supplier like eventuallyAsync, and blocks until the
+	 * verdict is known. On a mismatch, the description of the last polled value is reported. The
+	 * supplier is polled once per assertThat, the mismatch description does not poll again.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	Supplier&lt;Integer&gt; queueSize = () -> queue.size();
+	 * 	assertThat(queueSize, eventually(equalTo(0), 5, SECONDS));
+	 * </pre>
+	 * @param matcher
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 */
+	public static <T> Matcher<Supplier<? extends T>> eventually(final Matcher<? super T> matcher, final long timeout, final TimeUnit unit) {
+		return new RunOnceDiagnosingMatcher<Supplier<? extends T>>(Supplier.class) {
+			public void describeTo(Description description) {
+				description.appendText("eventually within ").appendValue(timeout).appendText(" ")
+					.appendText(unit.name().toLowerCase()).appendText(", ");
+				matcher.describeTo(description);
+			}
+			@Override
+			protected boolean matchesSafely(Supplier<? extends T> item, Description mismatchDescription) {
+				Eventually<T> eventually = Eventually.poll(item, matcher, timeout, unit);
+				if (eventually.verdict().join()) {
+					return true;
+				}
+				mismatchDescription.appendText("timed out, last value ").appendText(eventually.lastMismatch());
+				return false;
+			}
+		};
+	}
+}
@@ -0,0 +1,220 @@
+package de.bs.hamcrest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compact probabilistic set of allowed values. mightContain(...) never returns false for an added value,
+ * but may return true for a value that was not added, with a probability depending on the bits used
+ * per element (about 2% for 8 bits, 0.1% for 16 bits). The bits are kept in a LongBuffer, that is
+ * either on the heap, off the heap (direct buffer) or memory-mapped from a file written by writeTo(...).
+ * <p>
+ * By default values are hashed by their hashCode(). As this has only 32 bits, distinct values collide
+ * with a probability of about n / 2^32, what is a lower limit for the false positive rate of large
+ * filters (about 0.2% for 10 million values, whatever the bits per element). For such filters pass a
+ * 64-bit hash function, like the value itself for Long ids. Filters written to a file can only be reused
+ * by another JVM with the same hash function, for hashCode() only for values with a stable hashCode(),
+ * like String, Long or Integer.
+ * <p>
+ * Adding values is not thread-safe, checking values is.
+ */
+public class BloomFilter<T> {
+	private static final int MAGIC = 0x424c4d31; // "BLM1"
+	private static final int HEADER_SIZE = 16;
+	private static final long SEED = 0x9e3779b97f4a7c15L;
+
+	private static final ToLongFunction<Object> HASH_CODE = new ToLongFunction<Object>() {
+		public long applyAsLong(Object value) {
+			return value != null ? value.hashCode() : 0;
+		}
+	};
+
+	private final LongBuffer bits;
+	private final long bitCount;
+	private final int hashCount;
+	private final ToLongFunction<? super T> hashFunction;
+
+	private BloomFilter(final LongBuffer bits, final long bitCount, final int hashCount, final ToLongFunction<? super T> hashFunction) {
+		this.bits = bits;
+		this.bitCount = bitCount;
+		this.hashCount = hashCount;
+		this.hashFunction = hashFunction;
+	}
+
+	/**
+	 * Creates an empty filter on the heap, sized for expectedElements with bitsPerElement bits each,
+	 * hashing the values by hashCode().
+	 */
+	public static <T> BloomFilter<T> create(final long expectedElements, final int bitsPerElement) {
+		return create(expectedElements, bitsPerElement, HASH_CODE);
+	}
+
+	/**
+	 * Creates an empty filter on the heap, sized for expectedElements with bitsPerElement bits each,
+	 * hashing the values with the given 64-bit hashFunction.
+	 */
+	public static <T> BloomFilter<T> create(final long expectedElements, final int bitsPerElement, final ToLongFunction<? super T> hashFunction) {
+		int words = words(expectedElements, bitsPerElement);
+		return new BloomFilter<T>(LongBuffer.allocate(words), words * 64L, hashCount(bitsPerElement), hashFunction);
+	}
+
+	/**
+	 * Creates an empty filter like create(...), but with the bits held off the heap in a direct buffer.
+	 */
+	public static <T> BloomFilter<T> createOffHeap(final long expectedElements, final int bitsPerElement) {
+		return createOffHeap(expectedElements, bitsPerElement, HASH_CODE);
+	}
+
+	/**
+	 * Creates an empty filter like create(...), but with the bits held off the heap in a direct buffer.
+	 */
+	public static <T> BloomFilter<T> createOffHeap(final long expectedElements, final int bitsPerElement,
+			final ToLongFunction<? super T> hashFunction) {
+		int words = words(expectedElements, bitsPerElement);
+		return new BloomFilter<T>(ByteBuffer.allocateDirect(words * 8).asLongBuffer(), words * 64L, hashCount(bitsPerElement), hashFunction);
+	}
+
+	/**
+	 * Creates a filter on the heap, containing all the given values, hashed by hashCode().
+	 */
+	public static <T> BloomFilter<T> of(final Iterable<? extends T> values, final long expectedElements, final int bitsPerElement) {
+		return of(values, expectedElements, bitsPerElement, HASH_CODE);
+	}
+
+	/**
+	 * Creates a filter on the heap, containing all the given values, hashed by hashFunction.
+	 */
+	public static <T> BloomFilter<T> of(final Iterable<? extends T> values, final long expectedElements, final int bitsPerElement,
+			final ToLongFunction<? super T> hashFunction) {
+		BloomFilter<T> filter = create(expectedElements, bitsPerElement, hashFunction);
+		for (T value: values) {
+			filter.add(value);
+		}
+		return filter;
+	}
+
+	/**
+	 * Memory-maps a filter written by writeTo(...), created with the hashCode() hash function. The
+	 * returned filter is read-only.
+	 */
+	public static <T> BloomFilter<T> load(final Path file) throws IOException {
+		return load(file, HASH_CODE);
+	}
+
+	/**
+	 * Memory-maps a filter written by writeTo(...), created with the same hashFunction. The returned
+	 * filter is read-only.
+	 */
+	public static <T> BloomFilter<T> load(final Path file, final ToLongFunction<? super T> hashFunction) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// read until the header is complete
+			}
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+				throw new IOException("Not a bloom filter file: " + file);
+			}
+			int hashCount = header.getInt();
+			long bitCount = header.getLong();
+			if (hashCount <= 0 || bitCount <= 0 || bitCount % 64 != 0 || channel.size() != HEADER_SIZE + bitCount / 8) {
+				throw new IOException("Corrupt bloom filter file: " + file);
+			}
+			LongBuffer bits = channel.map(MapMode.READ_ONLY, HEADER_SIZE, bitCount / 8).asLongBuffer();
+			return new BloomFilter<T>(bits, bitCount, hashCount, hashFunction);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static int words(final long expectedElements, final int bitsPerElement) {
+		if (expectedElements <= 0 || bitsPerElement <= 0) {
+			throw new IllegalArgumentException("expectedElements and bitsPerElement must be positive");
+		}
+		long words = (expectedElements * bitsPerElement + 63) / 64;
+		if (words > Integer.MAX_VALUE / 8) {
+			throw new IllegalArgumentException("Bloom filter too large: " + expectedElements * bitsPerElement + " bits");
+		}
+		return (int)words;
+	}
+
+	private static int hashCount(final int bitsPerElement) {
+		// optimal number of hash functions is bitsPerElement * ln(2)
+		return Math.max(1, (int)Math.round(bitsPerElement * Math.log(2)));
+	}
+
+	public void add(final T value) {
+		long hash = mix(SEED + hashFunction.applyAsLong(value));
+		long step = mix(hash) | 1;
+		for (int i = 0; i < hashCount; i++, hash += step) {
+			long bit = (hash & Long.MAX_VALUE) % bitCount;
+			int word = (int)(bit >>> 6);
+			bits.put(word, bits.get(word) | (1L << bit));
+		}
+	}
+
+	public boolean mightContain(final T value) {
+		long hash = mix(SEED + hashFunction.applyAsLong(value));
+		long step = mix(hash) | 1;
+		for (int i = 0; i < hashCount; i++, hash += step) {
+			long bit = (hash & Long.MAX_VALUE) % bitCount;
+			if ((bits.get((int)(bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the filter to file, to be loaded again by load(...).
+	 */
+	public void writeTo(final Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			buffer.putInt(MAGIC).putInt(hashCount).putLong(bitCount);
+			int words = (int)(bitCount / 64);
+			for (int word = 0; word < words; word++) {
+				if (buffer.remaining() < 8) {
+					write(channel, buffer);
+				}
+				buffer.putLong(bits.get(word));
+			}
+			write(channel, buffer);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static void write(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @return the memory used by the bits of the filter, in bytes.
+	 */
+	public long sizeInBytes() {
+		return bitCount / 8;
+	}
+
+	private static long mix(long hash) {
+		// finalizer of MurmurHash3, spreads the bits of weak hashCode() implementations
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -1,5 +1,8 @@
 package de.bs.hamcrest;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
 import java.util.Collection;
 
 import org.hamcrest.Description;
@@ -8,10 +11,29 @@ import org.hamcrest.TypeSafeDiagnosingMatcher;
 
 import de.bs.hamcrest.internal.CollectionWithGenericTypeMatcher;
 import de.bs.hamcrest.internal.CollectionWithGenericTypeMatcher.CollectionWithGenericTypeMatcherAnd;
+import de.bs.hamcrest.internal.GenericTypeMatcher;
+import de.bs.hamcrest.internal.GenericTypes;
 import de.bs.hamcrest.internal.OfType;
 import de.bs.hamcrest.internal.OfType.OfTypeAnd;
 
+/**
+ * All matchers created by this class are immutable and can be shared between threads, for example
+ * in static fields. equalToType and extendsType return the same instance for the same class.
+ */
 public class ClassMatchers {
+	private static final ClassValue<Matcher<Class<?>>> EQUAL_TO_TYPE = new ClassValue<Matcher<Class<?>>>() {
+		@Override
+		protected Matcher<Class<?>> computeValue(Class<?> type) {
+			return createEqualToType(type);
+		}
+	};
+	private static final ClassValue<Matcher<Class<?>>> EXTENDS_TYPE = new ClassValue<Matcher<Class<?>>>() {
+		@Override
+		protected Matcher<Class<?>> computeValue(Class<?> type) {
+			return createExtendsType(type);
+		}
+	};
+	
 	/**
 	 * Creates a matcher that compare two Class object, and return true only when they are 
 	 * equal. It ignores inheritance, and is for exact equality. The Matchers.equalTo() leads 
@@ -24,9 +46,13 @@ public class ClassMatchers {
 	 *  assertThat(ArrayList.class, not(equalToType(List.class));
 	 * </pre>
 	 * @param otherClass
-	 * @return
+	 * @return the same instance for the same otherClass
 	 */
 	public static Matcher<Class<?>> equalToType(final Class<?> otherClass) {
+		return EQUAL_TO_TYPE.get(otherClass);
+	}
+	
+	private static Matcher<Class<?>> createEqualToType(final Class<?> otherClass) {
 		return new TypeSafeDiagnosingMatcher<Class<?>>() {
 			public void describeTo(Description description) {
 				description.appendText("Class should be ").appendValue(otherClass.getName());
@@ -51,9 +77,13 @@ public class ClassMatchers {
 	 *  assertThat(String.class, extendsType(String.class)); 
 	 * </pre>
 	 * @param otherClass
-	 * @return
+	 * @return the same instance for the same otherClass
 	 */
 	public static Matcher<Class<?>> extendsType(final Class<?> otherClass) {
+		return EXTENDS_TYPE.get(otherClass);
+	}
+	
+	private static Matcher<Class<?>> createExtendsType(final Class<?> otherClass) {
 		return new TypeSafeDiagnosingMatcher<Class<?>>() {
 			public void describeTo(Description description) {
 				description.appendText("Class should be extends/implements ").appendValue(otherClass.getName());
@@ -196,4 +226,121 @@ public class ClassMatchers {
 	public static <T> OfTypeAnd<T> ofType(final Matcher<Class<T>> typeMatcher) {
 		return OfType.ofType(typeMatcher);
 	}
+	
+	/**
+	 * Creates a matcher that checks the declared generic type of a field of the examined class, 
+	 * including fields of super classes. Type variables bound by super classes are resolved, so 
+	 * nothing is checked at runtime and empty collections are covered as well. The resolved types 
+	 * are cached per class, so reusing the matcher on the same class is only a map lookup.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	assertThat(Dto.class, genericFieldType("values", parameterizedType(Map.class, String.class, 
+	 * 		parameterizedType(List.class, Integer.class))));
+	 * 	assertThat(Dto.class, genericFieldType("name", String.class));
+	 * </pre>
+	 * @param fieldName
+	 * @param expectedType
+	 * @return
+	 */
+	public static Matcher<Class<?>> genericFieldType(final String fieldName, final Type expectedType) {
+		return GenericTypeMatcher.genericFieldType(fieldName, expectedType);
+	}
+	
+	/**
+	 * Creates a matcher that checks the declared generic return type of a method of the examined 
+	 * class. When the method is overloaded, it matches if one of the overloads has the expected type.
+	 * Overridden methods only count in their most derived declaration, so a covariant return type 
+	 * of a subclass replaces the one of the super class.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	assertThat(Dto.class, genericReturnType("getValues", parameterizedType(List.class, String.class)));
+	 * </pre>
+	 * @param methodName
+	 * @param expectedType
+	 * @return
+	 */
+	public static Matcher<Class<?>> genericReturnType(final String methodName, final Type expectedType) {
+		return GenericTypeMatcher.genericReturnType(methodName, expectedType);
+	}
+	
+	/**
+	 * Creates a matcher that checks the declared generic type of a parameter (by index) of a method 
+	 * of the examined class. When the method is overloaded, it matches if one of the overloads has 
+	 * the expected type.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	assertThat(Dto.class, genericParameterType("setValues", 0, parameterizedType(List.class, String.class)));
+	 * </pre>
+	 * @param methodName
+	 * @param index
+	 * @param expectedType
+	 * @return
+	 */
+	public static Matcher<Class<?>> genericParameterType(final String methodName, final int index, final Type expectedType) {
+		return GenericTypeMatcher.genericParameterType(methodName, index, expectedType);
+	}
+	
+	/**
+	 * Creates the expected generic type for genericFieldType, genericReturnType and genericParameterType.
+	 * The number of type arguments must match the type parameters of the raw type.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	parameterizedType(List.class, String.class)
+	 * 	parameterizedType(Map.class, String.class, parameterizedType(List.class, Integer.class))
+	 * </pre>
+	 * @param rawType
+	 * @param typeArguments
+	 * @return
+	 */
+	public static ParameterizedType parameterizedType(final Class<?> rawType, final Type... typeArguments) {
+		return GenericTypes.parameterized(rawType, typeArguments);
+	}
+	
+	/**
+	 * Creates the wildcard type "? extends upperBound" as type argument for parameterizedType. Use 
+	 * subtypeOf(Object.class) for the unbounded wildcard "?".
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	parameterizedType(List.class, subtypeOf(Number.class))
+	 * </pre>
+	 * @param upperBound
+	 * @return
+	 */
+	public static WildcardType subtypeOf(final Type upperBound) {
+		return GenericTypes.subtypeOf(upperBound);
+	}
+	
+	/**
+	 * Creates the wildcard type "? super lowerBound" as type argument for parameterizedType.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	parameterizedType(Comparator.class, supertypeOf(String.class))
+	 * </pre>
+	 * @param lowerBound
+	 * @return
+	 */
+	public static WildcardType supertypeOf(final Type lowerBound) {
+		return GenericTypes.supertypeOf(lowerBound);
+	}
+	
+	/**
+	 * Creates the generic array type "componentType[]", for fields, returns and parameters like 
+	 * List&lt;String&gt;[]. For a class as component type, the array class is returned.
+	 * <p>
+	 * For examples:
+	 * <pre>
+	 * 	genericArrayType(parameterizedType(List.class, String.class))
+	 * </pre>
+	 * @param componentType
+	 * @return
+	 */
+	public static Type genericArrayType(final Type componentType) {
+		return GenericTypes.arrayOf(componentType);
+	}
 }
@@ -0,0 +1,73 @@
+package de.bs.hamcrest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import de.bs.hamcrest.internal.ArraySnapshot;
+import de.bs.hamcrest.internal.RunOnceDiagnosingMatcher;
+
+/**
+ * Matchers created by matchesSnapshot can be shared between threads, for example in a static field
+ * per snapshot file, the file is opened for every comparison.
+ */
+public class SnapshotMatchers {
+	/**
+	 * Writes the array (byte[], int[], long[] or double[]) as golden snapshot to file, to be compared
+	 * later with matchesSnapshot. The file is binary, with a hash per chunk of 1 MiB.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	writeSnapshot(Paths.get("src/test/resources/result.snapshot"), result);
+	 * </pre>
+	 * @param file
+	 * @param array
+	 * @throws IOException
+	 */
+	public static void writeSnapshot(final Path file, final Object array) throws IOException {
+		ArraySnapshot.write(file, array);
+	}
+
+	/**
+	 * Create a matcher that compares the examined array (byte[], int[], long[] or double[]) with a
+	 * snapshot written by writeSnapshot. The array is hashed chunk by chunk, and only chunks whose hash
+	 * differs from the stored one are read from the (memory-mapped) file. The mismatch description
+	 * names the differing chunks, with the number of differing elements and the first difference. It
+	 * is kept from the comparison, so a failed assertThat does not read the file and array twice.
+	 * <p>
+	 * For example:
+	 * <pre>
+	 * 	assertThat(result, matchesSnapshot(Paths.get("src/test/resources/result.snapshot")));
+	 * </pre>
+	 * @param file
+	 * @return
+	 */
+	public static Matcher<Object> matchesSnapshot(final Path file) {
+		return new RunOnceDiagnosingMatcher<Object>(Object.class) {
+			public void describeTo(Description description) {
+				description.appendText("array equal to snapshot ").appendValue(file);
+			}
+			@Override
+			protected boolean matchesSafely(Object item, Description mismatchDescription) {
+				if (!ArraySnapshot.isSupported(item)) {
+					mismatchDescription.appendText("snapshots are supported for byte[], int[], long[] and double[] only, was ")
+						.appendValue(item.getClass().getSimpleName());
+					return false;
+				}
+				if (!Files.exists(file)) {
+					mismatchDescription.appendText("snapshot file does not exist");
+					return false;
+				}
+				try {
+					return ArraySnapshot.compare(file, item, mismatchDescription);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+	}
+}
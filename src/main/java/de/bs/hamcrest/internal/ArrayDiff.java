@@ -0,0 +1,274 @@
+package de.bs.hamcrest.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.hamcrest.Description;
+
+/**
+ * Edit script between two arrays, computed with the linear space variant of Myers' O(ND) algorithm:
+ * the middle snake of the edit graph is searched from both ends, and the two halves are diffed
+ * recursively. Common prefixes and suffixes are stripped first. The work is limited by a budget of
+ * element comparisons, once it is used up, the remaining differing ranges are compared position by
+ * position in one linear pass: every run of differing positions becomes a hunk, and a length
+ * difference is reported at the end of the range. So the time stays predictable for huge arrays,
+ * and scattered replacements still give small hunks, only shifted elements make them coarse.
+ */
+public final class ArrayDiff {
+	public static final long DEFAULT_BUDGET = 10000000;
+	private static final int MAX_REPORTED_HUNKS = 10;
+	private static final int MAX_REPORTED_ELEMENTS = 5;
+
+	private final Object[] expected;
+	private final Object[] actual;
+	private final List<Hunk> hunks = new ArrayList<Hunk>();
+	private long budget;
+	private boolean coarse;
+
+	/**
+	 * Replaces expected[expectedStart, expectedEnd) by actual[actualStart, actualEnd). An empty expected
+	 * range is an insertion, an empty actual range a deletion.
+	 */
+	public static final class Hunk {
+		private final int expectedStart;
+		private final int expectedEnd;
+		private final int actualStart;
+		private final int actualEnd;
+
+		private Hunk(final int expectedStart, final int expectedEnd, final int actualStart, final int actualEnd) {
+			this.expectedStart = expectedStart;
+			this.expectedEnd = expectedEnd;
+			this.actualStart = actualStart;
+			this.actualEnd = actualEnd;
+		}
+
+		public int getExpectedStart() {
+			return expectedStart;
+		}
+
+		public int getExpectedEnd() {
+			return expectedEnd;
+		}
+
+		public int getActualStart() {
+			return actualStart;
+		}
+
+		public int getActualEnd() {
+			return actualEnd;
+		}
+	}
+
+	private ArrayDiff(final Object[] expected, final Object[] actual, final long budget) {
+		this.expected = expected;
+		this.actual = actual;
+		this.budget = budget;
+	}
+
+	public static ArrayDiff diff(final Object[] expected, final Object[] actual) {
+		return diff(expected, actual, DEFAULT_BUDGET);
+	}
+
+	/**
+	 * @param budget maximum number of element comparisons, before falling back to coarse hunks.
+	 */
+	public static ArrayDiff diff(final Object[] expected, final Object[] actual, final long budget) {
+		ArrayDiff diff = new ArrayDiff(expected, actual, budget);
+		diff.diff(0, expected.length, 0, actual.length);
+		return diff;
+	}
+
+	public List<Hunk> getHunks() {
+		return Collections.unmodifiableList(hunks);
+	}
+
+	/**
+	 * @return true if the budget was used up and some hunks are coarser than a minimal edit script.
+	 */
+	public boolean isCoarse() {
+		return coarse;
+	}
+
+	public void describeTo(final Description description) {
+		description.appendText("differs in ").appendValue(hunks.size()).appendText(hunks.size() == 1 ? " hunk" : " hunks");
+		if (coarse) {
+			description.appendText(" (diff limit reached, some hunks are coarse)");
+		}
+		for (int i = 0; i < hunks.size() && i < MAX_REPORTED_HUNKS; i++) {
+			Hunk hunk = hunks.get(i);
+			description.appendText(i == 0 ? ": " : "; ");
+			if (hunk.expectedStart == hunk.expectedEnd) {
+				description.appendText("inserted at [").appendText(String.valueOf(hunk.actualStart)).appendText("] ");
+				appendElements(description, actual, hunk.actualStart, hunk.actualEnd);
+			} else if (hunk.actualStart == hunk.actualEnd) {
+				description.appendText("missing at [").appendText(String.valueOf(hunk.actualStart)).appendText("] ");
+				appendElements(description, expected, hunk.expectedStart, hunk.expectedEnd);
+			} else {
+				description.appendText("at [").appendText(String.valueOf(hunk.actualStart)).appendText("] expected ");
+				appendElements(description, expected, hunk.expectedStart, hunk.expectedEnd);
+				description.appendText(" but was ");
+				appendElements(description, actual, hunk.actualStart, hunk.actualEnd);
+			}
+		}
+		if (hunks.size() > MAX_REPORTED_HUNKS) {
+			description.appendText(" and ").appendValue(hunks.size() - MAX_REPORTED_HUNKS).appendText(" more hunks");
+		}
+	}
+
+	private static void appendElements(final Description description, final Object[] array, final int start, final int end) {
+		int shown = Math.min(end - start, MAX_REPORTED_ELEMENTS);
+		List<Object> elements = Arrays.asList(array).subList(start, start + shown);
+		description.appendValueList("[", ",", end - start > shown ? ",... " + (end - start - shown) + " more]" : "]", elements);
+	}
+
+	private void diff(int expectedStart, int expectedEnd, int actualStart, int actualEnd) {
+		while (expectedStart < expectedEnd && actualStart < actualEnd && equal(expectedStart, actualStart)) {
+			expectedStart++;
+			actualStart++;
+		}
+		while (expectedStart < expectedEnd && actualStart < actualEnd && equal(expectedEnd - 1, actualEnd - 1)) {
+			expectedEnd--;
+			actualEnd--;
+		}
+		if (expectedStart == expectedEnd && actualStart == actualEnd) {
+			return;
+		}
+		if (expectedStart == expectedEnd || actualStart == actualEnd) {
+			addHunk(expectedStart, expectedEnd, actualStart, actualEnd);
+			return;
+		}
+		if (budget < 0) {
+			compareByPosition(expectedStart, expectedEnd, actualStart, actualEnd);
+			return;
+		}
+		bisect(expectedStart, expectedEnd, actualStart, actualEnd);
+	}
+
+	private void bisect(final int expectedStart, final int expectedEnd, final int actualStart, final int actualEnd) {
+		int expectedLength = expectedEnd - expectedStart;
+		int actualLength = actualEnd - actualStart;
+		int maxD = (expectedLength + actualLength + 1) / 2;
+		int offset = maxD;
+		int size = 2 * maxD + 2;
+		// forward[k] and backward[k] hold the furthest x reached on diagonal k, from the start and from the end
+		int[] forward = new int[size];
+		int[] backward = new int[size];
+		Arrays.fill(forward, -1);
+		Arrays.fill(backward, -1);
+		forward[offset + 1] = 0;
+		backward[offset + 1] = 0;
+		int delta = expectedLength - actualLength;
+		boolean front = (delta & 1) != 0;
+		int forwardStart = 0;
+		int forwardEnd = 0;
+		int backwardStart = 0;
+		int backwardEnd = 0;
+		for (int d = 0; d < maxD; d++) {
+			if (budget < 0) {
+				break;
+			}
+			for (int k = -d + forwardStart; k <= d - forwardEnd; k += 2) {
+				int index = offset + k;
+				int x = k == -d || (k != d && forward[index - 1] < forward[index + 1]) ? forward[index + 1] : forward[index - 1] + 1;
+				int y = x - k;
+				int snakeStart = x;
+				while (x < expectedLength && y < actualLength && equal(expectedStart + x, actualStart + y)) {
+					x++;
+					y++;
+				}
+				forward[index] = x;
+				budget -= x - snakeStart + 1;
+				if (x > expectedLength) {
+					forwardEnd += 2;
+				} else if (y > actualLength) {
+					forwardStart += 2;
+				} else if (front) {
+					int backwardIndex = offset + delta - k;
+					if (backwardIndex >= 0 && backwardIndex < size && backward[backwardIndex] != -1
+							&& x >= expectedLength - backward[backwardIndex]) {
+						split(expectedStart, expectedEnd, actualStart, actualEnd, x, y);
+						return;
+					}
+				}
+			}
+			for (int k = -d + backwardStart; k <= d - backwardEnd; k += 2) {
+				int index = offset + k;
+				int x = k == -d || (k != d && backward[index - 1] < backward[index + 1]) ? backward[index + 1] : backward[index - 1] + 1;
+				int y = x - k;
+				int snakeStart = x;
+				while (x < expectedLength && y < actualLength && equal(expectedEnd - x - 1, actualEnd - y - 1)) {
+					x++;
+					y++;
+				}
+				backward[index] = x;
+				budget -= x - snakeStart + 1;
+				if (x > expectedLength) {
+					backwardEnd += 2;
+				} else if (y > actualLength) {
+					backwardStart += 2;
+				} else if (!front) {
+					int forwardIndex = offset + delta - k;
+					if (forwardIndex >= 0 && forwardIndex < size && forward[forwardIndex] != -1) {
+						int forwardX = forward[forwardIndex];
+						int forwardY = offset + forwardX - forwardIndex;
+						if (forwardX >= expectedLength - x) {
+							split(expectedStart, expectedEnd, actualStart, actualEnd, forwardX, forwardY);
+							return;
+						}
+					}
+				}
+			}
+		}
+		if (budget < 0) {
+			compareByPosition(expectedStart, expectedEnd, actualStart, actualEnd);
+		} else {
+			// nothing in common: the whole range is replaced
+			addHunk(expectedStart, expectedEnd, actualStart, actualEnd);
+		}
+	}
+
+	/**
+	 * Fallback after the budget is used up: reports every run of differing positions as a replacement,
+	 * and the surplus elements of the longer side as one insertion or deletion at the end.
+	 */
+	private void compareByPosition(final int expectedStart, final int expectedEnd, final int actualStart, final int actualEnd) {
+		coarse = true;
+		int common = Math.min(expectedEnd - expectedStart, actualEnd - actualStart);
+		int runStart = -1;
+		for (int i = 0; i < common; i++) {
+			if (!equal(expectedStart + i, actualStart + i)) {
+				runStart = runStart < 0 ? i : runStart;
+			} else if (runStart >= 0) {
+				addHunk(expectedStart + runStart, expectedStart + i, actualStart + runStart, actualStart + i);
+				runStart = -1;
+			}
+		}
+		if (runStart >= 0 || expectedEnd - expectedStart != actualEnd - actualStart) {
+			int start = runStart >= 0 ? runStart : common;
+			addHunk(expectedStart + start, expectedEnd, actualStart + start, actualEnd);
+		}
+	}
+
+	private void split(final int expectedStart, final int expectedEnd, final int actualStart, final int actualEnd, final int x, final int y) {
+		diff(expectedStart, expectedStart + x, actualStart, actualStart + y);
+		diff(expectedStart + x, expectedEnd, actualStart + y, actualEnd);
+	}
+
+	private void addHunk(final int expectedStart, final int expectedEnd, final int actualStart, final int actualEnd) {
+		if (!hunks.isEmpty()) {
+			Hunk last = hunks.get(hunks.size() - 1);
+			if (last.expectedEnd == expectedStart && last.actualEnd == actualStart) {
+				hunks.set(hunks.size() - 1, new Hunk(last.expectedStart, expectedEnd, last.actualStart, actualEnd));
+				return;
+			}
+		}
+		hunks.add(new Hunk(expectedStart, expectedEnd, actualStart, actualEnd));
+	}
+
+	private boolean equal(final int expectedIndex, final int actualIndex) {
+		return Objects.equals(expected[expectedIndex], actual[actualIndex]);
+	}
+}
@@ -0,0 +1,255 @@
+package de.bs.hamcrest.internal;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.hamcrest.Description;
+
+/**
+ * Binary snapshot of a primitive array (byte[], int[], long[] or double[]). The file starts with a
+ * header and an index holding one hash per chunk of CHUNK_BYTES, followed by the raw elements. Comparing
+ * an array against a snapshot hashes the array chunk by chunk and compares with the index, only chunks
+ * with a different hash are read (memory-mapped) from the file and compared element by element. So an
+ * unchanged snapshot is verified by reading the index and the array once.
+ */
+public final class ArraySnapshot {
+	private static final int MAGIC = 0x534e5031; // "SNP1"
+	private static final int HEADER_SIZE = 24;
+	private static final int CHUNK_BYTES = 1 << 20;
+	private static final int MAX_REPORTED_CHUNKS = 10;
+
+	private ArraySnapshot() {
+	}
+
+	private enum ElementType {
+		BYTE(1, byte[].class) {
+			void put(ByteBuffer buffer, Object array, int from, int count) {
+				buffer.put((byte[])array, from, count);
+			}
+			Object get(ByteBuffer buffer, int index) {
+				return buffer.get(index);
+			}
+		},
+		INT(4, int[].class) {
+			void put(ByteBuffer buffer, Object array, int from, int count) {
+				buffer.asIntBuffer().put((int[])array, from, count);
+				buffer.position(buffer.position() + count * 4);
+			}
+			Object get(ByteBuffer buffer, int index) {
+				return buffer.getInt(index * 4);
+			}
+		},
+		LONG(8, long[].class) {
+			void put(ByteBuffer buffer, Object array, int from, int count) {
+				buffer.asLongBuffer().put((long[])array, from, count);
+				buffer.position(buffer.position() + count * 8);
+			}
+			Object get(ByteBuffer buffer, int index) {
+				return buffer.getLong(index * 8);
+			}
+		},
+		DOUBLE(8, double[].class) {
+			void put(ByteBuffer buffer, Object array, int from, int count) {
+				buffer.asDoubleBuffer().put((double[])array, from, count);
+				buffer.position(buffer.position() + count * 8);
+			}
+			Object get(ByteBuffer buffer, int index) {
+				return buffer.getDouble(index * 8);
+			}
+		};
+
+		private final int size;
+		private final Class<?> arrayType;
+
+		private ElementType(final int size, final Class<?> arrayType) {
+			this.size = size;
+			this.arrayType = arrayType;
+		}
+
+		abstract void put(ByteBuffer buffer, Object array, int from, int count);
+
+		abstract Object get(ByteBuffer buffer, int index);
+
+		static ElementType of(final Object array) {
+			for (ElementType type: values()) {
+				if (type.arrayType.isInstance(array)) {
+					return type;
+				}
+			}
+			throw new IllegalArgumentException("Snapshots are supported for byte[], int[], long[] and double[] only, not for "
+					+ (array != null ? array.getClass().getName() : null));
+		}
+	}
+
+	public static boolean isSupported(final Object array) {
+		for (ElementType type: ElementType.values()) {
+			if (type.arrayType.isInstance(array)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public static void write(final Path file, final Object array) throws IOException {
+		ElementType type = ElementType.of(array);
+		int length = Array.getLength(array);
+		int chunkElements = CHUNK_BYTES / type.size;
+		// in long, length + chunkElements overflows int for arrays near Integer.MAX_VALUE elements
+		int chunkCount = (int)(((long)length + chunkElements - 1) / chunkElements);
+		ByteBuffer index = ByteBuffer.allocate(HEADER_SIZE + chunkCount * 8);
+		index.putInt(MAGIC).putInt(type.ordinal()).putInt(CHUNK_BYTES).putInt(0).putLong(length);
+		ByteBuffer chunk = ByteBuffer.allocate(CHUNK_BYTES);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			channel.position(index.capacity());
+			for (int i = 0; i < chunkCount; i++) {
+				fill(chunk, type, array, i, chunkElements, length);
+				index.putLong(hash(chunk));
+				writeFully(channel, chunk);
+			}
+			index.flip();
+			channel.position(0);
+			writeFully(channel, index);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Compares the array against the snapshot, and describes the differing chunks in mismatchDescription.
+	 */
+	public static boolean compare(final Path file, final Object array, final Description mismatchDescription) throws IOException {
+		ElementType type = ElementType.of(array);
+		int length = Array.getLength(array);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_SIZE));
+			if (header.capacity() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+				throw new IOException("Not an array snapshot file: " + file);
+			}
+			int typeOrdinal = header.getInt(4);
+			int chunkBytes = header.getInt(8);
+			long snapshotLength = header.getLong(16);
+			if (typeOrdinal < 0 || typeOrdinal >= ElementType.values().length || chunkBytes <= 0
+					|| snapshotLength < 0 || snapshotLength > Integer.MAX_VALUE) {
+				throw new IOException("Corrupt array snapshot file: " + file);
+			}
+			ElementType snapshotType = ElementType.values()[typeOrdinal];
+			if (chunkBytes < snapshotType.size || chunkBytes % snapshotType.size != 0) {
+				throw new IOException("Corrupt array snapshot file: " + file);
+			}
+			if (snapshotType != type) {
+				mismatchDescription.appendText("snapshot contains ").appendText(snapshotType.arrayType.getSimpleName())
+					.appendText(" but was ").appendText(type.arrayType.getSimpleName());
+				return false;
+			}
+			int chunkElements = chunkBytes / type.size;
+			long snapshotChunks = (snapshotLength + chunkElements - 1) / chunkElements;
+			long dataOffset = HEADER_SIZE + snapshotChunks * 8;
+			if (snapshotChunks * 8 > Integer.MAX_VALUE || channel.size() != dataOffset + snapshotLength * type.size) {
+				throw new IOException("Corrupt array snapshot file: " + file);
+			}
+			ByteBuffer index = channel.map(MapMode.READ_ONLY, HEADER_SIZE, snapshotChunks * 8);
+
+			boolean matches = true;
+			if (snapshotLength != length) {
+				mismatchDescription.appendText("snapshot length is ").appendValue(snapshotLength).appendText(" but was ").appendValue(length);
+				matches = false;
+			}
+			ByteBuffer chunk = ByteBuffer.allocate(chunkBytes);
+			int chunks = (int)Math.min(snapshotChunks, ((long)length + chunkElements - 1) / chunkElements);
+			int differingChunks = 0;
+			for (int i = 0; i < chunks; i++) {
+				fill(chunk, type, array, i, chunkElements, length);
+				if (index.getLong(i * 8) == hash(chunk)) {
+					continue;
+				}
+				if (differingChunks >= MAX_REPORTED_CHUNKS && i < chunks - 1) {
+					// not reported anyway, the hash is enough to know that the chunk differs
+					differingChunks++;
+					continue;
+				}
+				long snapshotChunkElements = Math.min(chunkElements, snapshotLength - (long)i * chunkElements);
+				ByteBuffer expected = channel.map(MapMode.READ_ONLY, dataOffset + (long)i * chunkBytes, snapshotChunkElements * type.size);
+				int comparable = (int)Math.min(snapshotChunkElements, chunk.remaining() / type.size);
+				int first = -1;
+				int differing = 0;
+				for (int e = 0; e < comparable; e++) {
+					if (!equalElement(expected, chunk, e, type.size)) {
+						first = first < 0 ? e : first;
+						differing++;
+					}
+				}
+				if (differing == 0) {
+					// only the length of the last chunk differs, that is already reported
+					continue;
+				}
+				if (differingChunks < MAX_REPORTED_CHUNKS) {
+					long offset = (long)i * chunkElements;
+					mismatchDescription.appendText(matches ? "" : ", ").appendText("chunk ").appendValue(i)
+						.appendText(" [").appendValue(offset).appendText("..").appendValue(offset + comparable - 1)
+						.appendText("] has ").appendValue(differing).appendText(" differing elements, first at ")
+						.appendValue(offset + first).appendText(": expected ").appendValue(type.get(expected, first))
+						.appendText(" but was ").appendValue(type.get(chunk, first));
+				}
+				differingChunks++;
+				matches = false;
+			}
+			if (differingChunks > MAX_REPORTED_CHUNKS) {
+				mismatchDescription.appendText(" and ").appendValue(differingChunks - MAX_REPORTED_CHUNKS).appendText(" more chunks");
+			}
+			return matches;
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static boolean equalElement(final ByteBuffer expected, final ByteBuffer actual, final int element, final int size) {
+		for (int b = element * size; b < (element + 1) * size; b++) {
+			if (expected.get(b) != actual.get(b)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void fill(final ByteBuffer chunk, final ElementType type, final Object array, final int chunkIndex,
+			final int chunkElements, final int length) {
+		int from = chunkIndex * chunkElements;
+		chunk.clear();
+		type.put(chunk, array, from, Math.min(chunkElements, length - from));
+		chunk.flip();
+	}
+
+	private static long hash(final ByteBuffer chunk) {
+		long hash = chunk.remaining();
+		int position = 0;
+		for (; position + 8 <= chunk.limit(); position += 8) {
+			hash = Long.rotateLeft(hash ^ mix(chunk.getLong(position)), 27) * 0x9e3779b97f4a7c15L;
+		}
+		for (; position < chunk.limit(); position++) {
+			hash = Long.rotateLeft(hash ^ mix(chunk.get(position)), 27) * 0x9e3779b97f4a7c15L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+	private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
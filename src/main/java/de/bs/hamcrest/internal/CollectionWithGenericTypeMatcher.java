@@ -6,10 +6,13 @@ import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
+/**
+ * Matches collections of collectionType with only genericType instances as elements, that match matcher as well.
+ */
 public class CollectionWithGenericTypeMatcher<C extends Collection<T>, T> extends TypeSafeDiagnosingMatcher<Object> {
-	private Class<C> collectionType;
-	private Class<T> genericType;
-	private Matcher<C> matcher;
+	private final Class<C> collectionType;
+	private final Class<T> genericType;
+	private final Matcher<C> matcher;
 	
 	public CollectionWithGenericTypeMatcher(final Class<C> collectionType, final Class<T> genericType, final Matcher<C> matcher) {
 		this.collectionType = collectionType;
@@ -18,8 +21,8 @@ public class CollectionWithGenericTypeMatcher<C extends Collection<T>, T> extend
 	}
 
 	public static class CollectionWithGenericTypeMatcherAnd<C extends Collection<T>, T> {
-		private Class<C> collectionType;
-		private Class<T> genericType;
+		private final Class<C> collectionType;
+		private final Class<T> genericType;
 		public CollectionWithGenericTypeMatcherAnd(final Class<C> collectionType, final Class<T> genericType) {
 			this.collectionType = collectionType;
 			this.genericType = genericType;
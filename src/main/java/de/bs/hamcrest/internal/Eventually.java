@@ -0,0 +1,114 @@
+package de.bs.hamcrest.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+/**
+ * Polls a supplier until its value matches the matcher or the timeout expires. All pending checks share
+ * one daemon scheduler thread, no thread is blocked while waiting. The delay between two polls starts
+ * small and doubles up to MAX_DELAY_NANOS, so a condition that holds soon is detected soon, and long
+ * waits do not poll more often than needed.
+ */
+public class Eventually<T> implements Runnable {
+	private static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long MAX_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final ScheduledExecutorService SCHEDULER = createScheduler();
+	private static final Executor COMPLETION = ForkJoinPool.commonPool();
+
+	private final Supplier<? extends T> supplier;
+	private final Matcher<? super T> matcher;
+	private final long deadline;
+	private final CompletableFuture<Boolean> verdict = new CompletableFuture<Boolean>();
+	// only accessed by the scheduler thread until verdict is completed
+	private long delay = MIN_DELAY_NANOS;
+	private volatile String lastMismatch = "";
+
+	private Eventually(final Supplier<? extends T> supplier, final Matcher<? super T> matcher, final long timeout, final TimeUnit unit) {
+		this.supplier = supplier;
+		this.matcher = matcher;
+		this.deadline = System.nanoTime() + unit.toNanos(timeout);
+	}
+
+	private static ScheduledExecutorService createScheduler() {
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "hamcrest-eventually");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.setRemoveOnCancelPolicy(true);
+		return scheduler;
+	}
+
+	// static "fluent" method
+	public static <T> Eventually<T> poll(final Supplier<? extends T> supplier, final Matcher<? super T> matcher, final long timeout, final TimeUnit unit) {
+		Eventually<T> eventually = new Eventually<T>(supplier, matcher, timeout, unit);
+		SCHEDULER.execute(eventually);
+		return eventually;
+	}
+
+	/**
+	 * @return future that completes with true as soon as the value matches, or with false when the timeout
+	 * expired first. Cancelling it stops the polling.
+	 */
+	public CompletableFuture<Boolean> verdict() {
+		return verdict;
+	}
+
+	/**
+	 * @return the mismatch description of the last polled value.
+	 */
+	public String lastMismatch() {
+		return lastMismatch;
+	}
+
+	/**
+	 * Completes the verdict on the common pool, so callbacks chained on it by the caller do not run
+	 * on (and block) the scheduler thread polling all other checks.
+	 */
+	private void complete(final boolean matches) {
+		COMPLETION.execute(new Runnable() {
+			public void run() {
+				verdict.complete(matches);
+			}
+		});
+	}
+
+	public void run() {
+		if (verdict.isDone()) {
+			return;
+		}
+		try {
+			T value = supplier.get();
+			if (matcher.matches(value)) {
+				complete(true);
+				return;
+			}
+			Description description = new StringDescription();
+			matcher.describeMismatch(value, description);
+			lastMismatch = description.toString();
+		} catch (Throwable e) {
+			// also AssertionError and other errors, the deadline must still complete the verdict
+			lastMismatch = "threw " + e;
+		}
+		long remaining = deadline - System.nanoTime();
+		if (remaining <= 0) {
+			complete(false);
+			return;
+		}
+		SCHEDULER.schedule(this, Math.min(delay, remaining), TimeUnit.NANOSECONDS);
+		delay = Math.min(delay * 2, MAX_DELAY_NANOS);
+	}
+}
@@ -0,0 +1,72 @@
+package de.bs.hamcrest.internal;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+public abstract class GenericTypeMatcher extends TypeSafeDiagnosingMatcher<Class<?>> {
+	private final String member;
+	private final Type expectedType;
+
+	private GenericTypeMatcher(final String member, final Type expectedType) {
+		this.member = member;
+		this.expectedType = expectedType;
+	}
+
+	protected abstract List<Type> resolve(ResolvedTypeCache cache);
+
+	// static "fluent" methods
+	public static GenericTypeMatcher genericFieldType(final String fieldName, final Type expectedType) {
+		return new GenericTypeMatcher("field " + fieldName, expectedType) {
+			@Override
+			protected List<Type> resolve(ResolvedTypeCache cache) {
+				Type type = cache.fieldType(fieldName);
+				return type != null ? Collections.singletonList(type) : Collections.<Type>emptyList();
+			}
+		};
+	}
+
+	public static GenericTypeMatcher genericReturnType(final String methodName, final Type expectedType) {
+		return new GenericTypeMatcher("return type of method " + methodName, expectedType) {
+			@Override
+			protected List<Type> resolve(ResolvedTypeCache cache) {
+				return cache.returnTypes(methodName);
+			}
+		};
+	}
+
+	public static GenericTypeMatcher genericParameterType(final String methodName, final int index, final Type expectedType) {
+		return new GenericTypeMatcher("parameter " + index + " of method " + methodName, expectedType) {
+			@Override
+			protected List<Type> resolve(ResolvedTypeCache cache) {
+				return cache.parameterTypes(methodName, index);
+			}
+		};
+	}
+
+	public void describeTo(Description description) {
+		description.appendText(member).appendText(" should have generic type ").appendText(GenericTypes.toString(expectedType));
+	}
+
+	@Override
+	protected boolean matchesSafely(Class<?> item, Description mismatchDescription) {
+		List<Type> types = resolve(ResolvedTypeCache.forClass(item));
+		if (types.isEmpty()) {
+			mismatchDescription.appendText(member).appendText(" not found in ").appendValue(item.getName());
+			return false;
+		}
+		for (Type type: types) {
+			if (GenericTypes.equalTypes(expectedType, type)) {
+				return true;
+			}
+		}
+		mismatchDescription.appendText(member).appendText(" of ").appendValue(item.getName()).appendText(" was ");
+		for (int i = 0; i < types.size(); i++) {
+			mismatchDescription.appendText(i > 0 ? ", " : "").appendText(GenericTypes.toString(types.get(i)));
+		}
+		return false;
+	}
+}
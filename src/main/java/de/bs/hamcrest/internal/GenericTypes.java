@@ -0,0 +1,286 @@
+package de.bs.hamcrest.internal;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Helper for building and comparing java.lang.reflect.Type objects. Types are compared structurally,
+ * so a type created with parameterized(...) is equal to the type the compiler recorded for a field or
+ * method with the same declaration.
+ */
+public final class GenericTypes {
+	private GenericTypes() {
+	}
+
+	// static "fluent" method
+	public static ParameterizedType parameterized(final Class<?> rawType, final Type... typeArguments) {
+		if (rawType.getTypeParameters().length != typeArguments.length) {
+			throw new IllegalArgumentException("Type " + rawType.getName() + " expects " + rawType.getTypeParameters().length
+					+ " type arguments, but got " + typeArguments.length);
+		}
+		return new ParameterizedTypeImpl(rawType, typeArguments.clone());
+	}
+
+	/**
+	 * Creates the wildcard type "? extends upperBound", "?" for Object.class.
+	 */
+	public static WildcardType subtypeOf(final Type upperBound) {
+		return new WildcardTypeImpl(new Type[]{upperBound}, new Type[0]);
+	}
+
+	/**
+	 * Creates the wildcard type "? super lowerBound".
+	 */
+	public static WildcardType supertypeOf(final Type lowerBound) {
+		return new WildcardTypeImpl(new Type[]{Object.class}, new Type[]{lowerBound});
+	}
+
+	/**
+	 * Creates the array type "componentType[]", for a class the array class itself (like String[].class),
+	 * as the compiler records it.
+	 */
+	public static Type arrayOf(final Type componentType) {
+		if (componentType instanceof Class) {
+			return Array.newInstance((Class<?>)componentType, 0).getClass();
+		}
+		return new GenericArrayTypeImpl(componentType);
+	}
+
+	/**
+	 * @return the raw class of type, for type variables and wildcards the raw class of the (first) upper bound.
+	 */
+	public static Class<?> erasure(final Type type) {
+		if (type instanceof Class) {
+			return (Class<?>)type;
+		}
+		if (type instanceof ParameterizedType) {
+			return (Class<?>)((ParameterizedType)type).getRawType();
+		}
+		if (type instanceof GenericArrayType) {
+			return Array.newInstance(erasure(((GenericArrayType)type).getGenericComponentType()), 0).getClass();
+		}
+		if (type instanceof TypeVariable) {
+			return erasure(((TypeVariable<?>)type).getBounds()[0]);
+		}
+		if (type instanceof WildcardType) {
+			return erasure(((WildcardType)type).getUpperBounds()[0]);
+		}
+		return Object.class;
+	}
+
+	public static boolean equalTypes(final Type first, final Type second) {
+		if (first == second) {
+			return true;
+		}
+		if (first == null || second == null) {
+			return false;
+		}
+		if (first instanceof Class || second instanceof Class) {
+			return first.equals(second);
+		}
+		if (first instanceof ParameterizedType && second instanceof ParameterizedType) {
+			ParameterizedType firstType = (ParameterizedType)first;
+			ParameterizedType secondType = (ParameterizedType)second;
+			return equalTypes(firstType.getRawType(), secondType.getRawType())
+					&& equalTypes(firstType.getActualTypeArguments(), secondType.getActualTypeArguments());
+		}
+		if (first instanceof GenericArrayType && second instanceof GenericArrayType) {
+			return equalTypes(((GenericArrayType)first).getGenericComponentType(), ((GenericArrayType)second).getGenericComponentType());
+		}
+		if (first instanceof WildcardType && second instanceof WildcardType) {
+			WildcardType firstType = (WildcardType)first;
+			WildcardType secondType = (WildcardType)second;
+			return equalTypes(firstType.getUpperBounds(), secondType.getUpperBounds())
+					&& equalTypes(firstType.getLowerBounds(), secondType.getLowerBounds());
+		}
+		return first.equals(second);
+	}
+
+	private static boolean equalTypes(final Type[] first, final Type[] second) {
+		if (first.length != second.length) {
+			return false;
+		}
+		for (int i = 0; i < first.length; i++) {
+			if (!equalTypes(first[i], second[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces all type variables within type, that are bound in bindings. Unbound type variables
+	 * are kept as they are.
+	 */
+	public static Type resolve(final Type type, final Map<TypeVariable<?>, Type> bindings) {
+		if (type instanceof TypeVariable) {
+			Type bound = bindings.get(type);
+			return bound != null ? bound : type;
+		}
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType)type;
+			Type[] arguments = parameterizedType.getActualTypeArguments();
+			Type[] resolved = resolve(arguments, bindings);
+			if (resolved == arguments) {
+				return type;
+			}
+			return new ParameterizedTypeImpl((Class<?>)parameterizedType.getRawType(), resolved);
+		}
+		if (type instanceof GenericArrayType) {
+			Type component = ((GenericArrayType)type).getGenericComponentType();
+			Type resolved = resolve(component, bindings);
+			if (resolved == component) {
+				return type;
+			}
+			return arrayOf(resolved);
+		}
+		if (type instanceof WildcardType) {
+			WildcardType wildcardType = (WildcardType)type;
+			Type[] upperBounds = wildcardType.getUpperBounds();
+			Type[] lowerBounds = wildcardType.getLowerBounds();
+			Type[] resolvedUpperBounds = resolve(upperBounds, bindings);
+			Type[] resolvedLowerBounds = resolve(lowerBounds, bindings);
+			if (resolvedUpperBounds == upperBounds && resolvedLowerBounds == lowerBounds) {
+				return type;
+			}
+			return new WildcardTypeImpl(resolvedUpperBounds, resolvedLowerBounds);
+		}
+		return type;
+	}
+
+	private static Type[] resolve(final Type[] types, final Map<TypeVariable<?>, Type> bindings) {
+		Type[] resolved = types;
+		for (int i = 0; i < types.length; i++) {
+			Type type = resolve(types[i], bindings);
+			if (type != types[i]) {
+				if (resolved == types) {
+					resolved = types.clone();
+				}
+				resolved[i] = type;
+			}
+		}
+		return resolved;
+	}
+
+	public static String toString(final Type type) {
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>)type;
+			return clazz.isArray() ? toString(clazz.getComponentType()) + "[]" : clazz.getName();
+		}
+		return type.toString();
+	}
+
+	private static final class ParameterizedTypeImpl implements ParameterizedType {
+		private final Class<?> rawType;
+		private final Type[] typeArguments;
+
+		private ParameterizedTypeImpl(final Class<?> rawType, final Type[] typeArguments) {
+			this.rawType = rawType;
+			this.typeArguments = typeArguments;
+		}
+
+		public Type[] getActualTypeArguments() {
+			return typeArguments.clone();
+		}
+
+		public Type getRawType() {
+			return rawType;
+		}
+
+		public Type getOwnerType() {
+			return rawType.getDeclaringClass();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof ParameterizedType && equalTypes(this, (ParameterizedType)obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(typeArguments) ^ Objects.hashCode(getOwnerType()) ^ rawType.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder(rawType.getName()).append("<");
+			for (int i = 0; i < typeArguments.length; i++) {
+				builder.append(i > 0 ? ", " : "").append(GenericTypes.toString(typeArguments[i]));
+			}
+			return builder.append(">").toString();
+		}
+	}
+
+	private static final class GenericArrayTypeImpl implements GenericArrayType {
+		private final Type componentType;
+
+		private GenericArrayTypeImpl(final Type componentType) {
+			this.componentType = componentType;
+		}
+
+		public Type getGenericComponentType() {
+			return componentType;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof GenericArrayType && equalTypes(this, (GenericArrayType)obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return componentType.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return GenericTypes.toString(componentType) + "[]";
+		}
+	}
+
+	private static final class WildcardTypeImpl implements WildcardType {
+		private final Type[] upperBounds;
+		private final Type[] lowerBounds;
+
+		private WildcardTypeImpl(final Type[] upperBounds, final Type[] lowerBounds) {
+			this.upperBounds = upperBounds;
+			this.lowerBounds = lowerBounds;
+		}
+
+		public Type[] getUpperBounds() {
+			return upperBounds.clone();
+		}
+
+		public Type[] getLowerBounds() {
+			return lowerBounds.clone();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof WildcardType && equalTypes(this, (WildcardType)obj);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(upperBounds) ^ Arrays.hashCode(lowerBounds);
+		}
+
+		@Override
+		public String toString() {
+			if (lowerBounds.length > 0) {
+				return "? super " + GenericTypes.toString(lowerBounds[0]);
+			}
+			if (Object.class.equals(upperBounds[0])) {
+				return "?";
+			}
+			return "? extends " + GenericTypes.toString(upperBounds[0]);
+		}
+	}
+}
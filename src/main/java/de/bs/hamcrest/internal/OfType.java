@@ -4,9 +4,12 @@ import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
+/**
+ * Matches objects whose class matches typeMatcher, and that match matcher as well.
+ */
 public class OfType<T> extends TypeSafeDiagnosingMatcher<Object> {
-	private Matcher<Class<T>> typeMatcher;
-	private Matcher<T> matcher;
+	private final Matcher<Class<T>> typeMatcher;
+	private final Matcher<T> matcher;
 
 	public OfType(final Matcher<Class<T>> typeMatcher, final Matcher<T> matcher) {
 		this.typeMatcher = typeMatcher;
@@ -14,7 +17,7 @@ public class OfType<T> extends TypeSafeDiagnosingMatcher<Object> {
 	}
 	
 	public static class OfTypeAnd<T> {
-		private Matcher<Class<T>> typeMatcher;
+		private final Matcher<Class<T>> typeMatcher;
 		public OfTypeAnd(final Matcher<Class<T>> typeMatcher) {
 			this.typeMatcher = typeMatcher;
 		}
@@ -0,0 +1,163 @@
+package de.bs.hamcrest.internal;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache for the generic types of fields, method returns and method parameters, one entry per examined
+ * class. Type variables declared by super classes or interfaces are resolved against the bindings of
+ * the examined class, so a field "T value" declared in Base&lt;T&gt; is reported as String for a class
+ * extending Base&lt;String&gt;. Every member is resolved once, later lookups are a map access only.
+ */
+public final class ResolvedTypeCache {
+	private static final ClassValue<ResolvedTypeCache> CACHE = new ClassValue<ResolvedTypeCache>() {
+		@Override
+		protected ResolvedTypeCache computeValue(final Class<?> type) {
+			return new ResolvedTypeCache(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final Map<TypeVariable<?>, Type> bindings;
+	private final ConcurrentMap<String, List<Type>> resolvedTypes = new ConcurrentHashMap<String, List<Type>>();
+
+	private ResolvedTypeCache(final Class<?> type) {
+		this.type = type;
+		Map<TypeVariable<?>, Type> collected = new HashMap<TypeVariable<?>, Type>();
+		collectBindings(type, collected);
+		this.bindings = Collections.unmodifiableMap(collected);
+	}
+
+	public static ResolvedTypeCache forClass(final Class<?> type) {
+		return CACHE.get(type);
+	}
+
+	/**
+	 * @return the resolved generic type of the field, or null if the class has no such field.
+	 */
+	public Type fieldType(final String fieldName) {
+		List<Type> types = resolvedTypes.get("field:" + fieldName);
+		if (types == null) {
+			types = putIfAbsent("field:" + fieldName, resolveField(fieldName));
+		}
+		return types.isEmpty() ? null : types.get(0);
+	}
+
+	/**
+	 * @return the resolved generic return types of all methods with the name, empty if there is none.
+	 */
+	public List<Type> returnTypes(final String methodName) {
+		List<Type> types = resolvedTypes.get("return:" + methodName);
+		if (types == null) {
+			List<Type> resolved = new ArrayList<Type>();
+			for (Method method: methods(methodName)) {
+				resolved.add(GenericTypes.resolve(method.getGenericReturnType(), bindings));
+			}
+			types = putIfAbsent("return:" + methodName, resolved);
+		}
+		return types;
+	}
+
+	/**
+	 * @return the resolved generic types of the parameter at index, for all methods with the name that
+	 * have such a parameter, empty if there is none.
+	 */
+	public List<Type> parameterTypes(final String methodName, final int index) {
+		String key = "parameter:" + methodName + ":" + index;
+		List<Type> types = resolvedTypes.get(key);
+		if (types == null) {
+			List<Type> resolved = new ArrayList<Type>();
+			for (Method method: methods(methodName)) {
+				Type[] parameterTypes = method.getGenericParameterTypes();
+				if (index >= 0 && index < parameterTypes.length) {
+					resolved.add(GenericTypes.resolve(parameterTypes[index], bindings));
+				}
+			}
+			types = putIfAbsent(key, resolved);
+		}
+		return types;
+	}
+
+	private List<Type> putIfAbsent(final String key, final List<Type> types) {
+		List<Type> unmodifiable = Collections.unmodifiableList(types);
+		List<Type> previous = resolvedTypes.putIfAbsent(key, unmodifiable);
+		return previous != null ? previous : unmodifiable;
+	}
+
+	private List<Type> resolveField(final String fieldName) {
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Field field: current.getDeclaredFields()) {
+				if (field.getName().equals(fieldName)) {
+					return Collections.singletonList(GenericTypes.resolve(field.getGenericType(), bindings));
+				}
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return the methods with the name, only the most derived declaration for every (resolved and
+	 * erased) parameter signature, so an overridden method does not count any more.
+	 */
+	private List<Method> methods(final String methodName) {
+		List<Method> methods = new ArrayList<Method>();
+		Set<List<Class<?>>> signatures = new HashSet<List<Class<?>>>();
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Method method: current.getDeclaredMethods()) {
+				if (method.getName().equals(methodName) && !method.isBridge() && !method.isSynthetic()
+						&& signatures.add(signature(method))) {
+					methods.add(method);
+				}
+			}
+		}
+		for (Method method: type.getMethods()) {
+			if (method.getName().equals(methodName) && method.getDeclaringClass().isInterface() && signatures.add(signature(method))) {
+				methods.add(method);
+			}
+		}
+		return methods;
+	}
+
+	private List<Class<?>> signature(final Method method) {
+		List<Class<?>> signature = new ArrayList<Class<?>>();
+		for (Type parameterType: method.getGenericParameterTypes()) {
+			signature.add(GenericTypes.erasure(GenericTypes.resolve(parameterType, bindings)));
+		}
+		return signature;
+	}
+
+	private static void collectBindings(final Type type, final Map<TypeVariable<?>, Type> bindings) {
+		Class<?> rawType;
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType)type;
+			rawType = (Class<?>)parameterizedType.getRawType();
+			TypeVariable<?>[] variables = rawType.getTypeParameters();
+			Type[] arguments = parameterizedType.getActualTypeArguments();
+			for (int i = 0; i < variables.length; i++) {
+				bindings.put(variables[i], GenericTypes.resolve(arguments[i], bindings));
+			}
+		} else if (type instanceof Class) {
+			rawType = (Class<?>)type;
+		} else {
+			return;
+		}
+		if (rawType.getGenericSuperclass() != null) {
+			collectBindings(rawType.getGenericSuperclass(), bindings);
+		}
+		for (Type genericInterface: rawType.getGenericInterfaces()) {
+			collectBindings(genericInterface, bindings);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package de.bs.hamcrest.internal;
+
+import java.lang.ref.WeakReference;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.StringDescription;
+
+/**
+ * Like TypeSafeDiagnosingMatcher, but for checks that are expensive or have side effects, like polling
+ * a supplier or hashing a huge array. TypeSafeDiagnosingMatcher runs matchesSafely again in
+ * describeMismatch, this class keeps the mismatch description of the last failed run and reports it,
+ * when describeMismatch follows for the same item on the same thread (as in assertThat). Other calls
+ * run the check again. The item is referenced weakly, so the matcher does not keep it alive, and the
+ * matcher can still be shared between threads.
+ */
+public abstract class RunOnceDiagnosingMatcher<T> extends BaseMatcher<T> {
+	private final Class<?> expectedType;
+	private volatile LastMismatch lastMismatch;
+
+	private static final class LastMismatch {
+		private final long threadId = Thread.currentThread().getId();
+		private final WeakReference<Object> item;
+		private final String description;
+
+		private LastMismatch(final Object item, final String description) {
+			this.item = new WeakReference<Object>(item);
+			this.description = description;
+		}
+	}
+
+	protected RunOnceDiagnosingMatcher(final Class<?> expectedType) {
+		this.expectedType = expectedType;
+	}
+
+	protected abstract boolean matchesSafely(T item, Description mismatchDescription);
+
+	@SuppressWarnings("unchecked")
+	public final boolean matches(final Object item) {
+		if (!expectedType.isInstance(item)) {
+			return false;
+		}
+		Description description = new StringDescription();
+		boolean matches = matchesSafely((T)item, description);
+		lastMismatch = matches ? null : new LastMismatch(item, description.toString());
+		return matches;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public final void describeMismatch(final Object item, final Description mismatchDescription) {
+		if (!expectedType.isInstance(item)) {
+			super.describeMismatch(item, mismatchDescription);
+			return;
+		}
+		LastMismatch last = lastMismatch;
+		if (last != null && last.threadId == Thread.currentThread().getId() && last.item.get() == item) {
+			mismatchDescription.appendText(last.description);
+			return;
+		}
+		matchesSafely((T)item, mismatchDescription);
+	}
+}
@@ -0,0 +1,122 @@
+package de.bs.hamcrest.internal;
+
+import java.util.Comparator;
+
+/**
+ * Search helpers for sorted arrays. lowerBound returns the first index in [from, to) with an element
+ * not less than key (to if there is none), upperBound the first index with an element greater than
+ * key. gallop computes lowerBound over [from, length), but probes from, from + 1, from + 3, from + 7,
+ * ... first, so a search for sorted keys costs O(log(distance)) instead of O(log(length)).
+ */
+public final class SortedArrays {
+	private SortedArrays() {
+	}
+
+	/**
+	 * @return the first index i with array[i] > array[i + 1], or -1 if the array is sorted.
+	 */
+	public static <T> int unsortedAt(final T[] array, final Comparator<? super T> comparator) {
+		for (int i = 0; i + 1 < array.length; i++) {
+			if (comparator.compare(array[i], array[i + 1]) > 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public static int unsortedAt(final int[] array) {
+		for (int i = 0; i + 1 < array.length; i++) {
+			if (array[i] > array[i + 1]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public static int unsortedAt(final long[] array) {
+		for (int i = 0; i + 1 < array.length; i++) {
+			if (array[i] > array[i + 1]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public static <T> int lowerBound(final T[] array, int from, int to, final T key, final Comparator<? super T> comparator) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (comparator.compare(array[middle], key) < 0) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		return from;
+	}
+
+	public static <T> int upperBound(final T[] array, int from, int to, final T key, final Comparator<? super T> comparator) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (comparator.compare(array[middle], key) <= 0) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		return from;
+	}
+
+	public static int lowerBound(final int[] array, int from, int to, final int key) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (array[middle] < key) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		return from;
+	}
+
+	public static int lowerBound(final long[] array, int from, int to, final long key) {
+		while (from < to) {
+			int middle = (from + to) >>> 1;
+			if (array[middle] < key) {
+				from = middle + 1;
+			} else {
+				to = middle;
+			}
+		}
+		return from;
+	}
+
+	public static <T> int gallop(final T[] array, final int from, final T key, final Comparator<? super T> comparator) {
+		int low = from;
+		long bound = 1;
+		while (from + bound - 1 < array.length && comparator.compare(array[(int)(from + bound - 1)], key) < 0) {
+			low = (int)(from + bound);
+			bound <<= 1;
+		}
+		return lowerBound(array, low, (int)Math.min(from + bound - 1, array.length), key, comparator);
+	}
+
+	public static int gallop(final int[] array, final int from, final int key) {
+		int low = from;
+		long bound = 1;
+		while (from + bound - 1 < array.length && array[(int)(from + bound - 1)] < key) {
+			low = (int)(from + bound);
+			bound <<= 1;
+		}
+		return lowerBound(array, low, (int)Math.min(from + bound - 1, array.length), key);
+	}
+
+	public static int gallop(final long[] array, final int from, final long key) {
+		int low = from;
+		long bound = 1;
+		while (from + bound - 1 < array.length && array[(int)(from + bound - 1)] < key) {
+			low = (int)(from + bound);
+			bound <<= 1;
+		}
+		return lowerBound(array, low, (int)Math.min(from + bound - 1, array.length), key);
+	}
+}
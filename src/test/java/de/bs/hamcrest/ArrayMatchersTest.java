@@ -5,19 +5,50 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.sameInstance;
 
 import static de.bs.hamcrest.ArrayMatchers.arrayHasLength;
 import static de.bs.hamcrest.ArrayMatchers.arrayLength;
 import static de.bs.hamcrest.ArrayMatchers.arrayElementAt;
 import static de.bs.hamcrest.ArrayMatchers.arrayHasItems;
+import static de.bs.hamcrest.ArrayMatchers.arrayEqualTo;
+import static de.bs.hamcrest.ArrayMatchers.arrayItemsIn;
+import static de.bs.hamcrest.ArrayMatchers.sortedArray;
+import static de.bs.hamcrest.ArrayMatchers.sortedIntArray;
+import static de.bs.hamcrest.ArrayMatchers.sortedLongArray;
+import static de.bs.hamcrest.ArrayMatchers.sortedArrayHasItems;
+import static de.bs.hamcrest.ArrayMatchers.sortedArrayCountInRange;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.bs.hamcrest.internal.ArrayDiff;
+import de.bs.hamcrest.internal.ArrayDiff.Hunk;
 
 public class ArrayMatchersTest {
 	private String[] notInArray = new String[]{"d", "e", "f"};
 	private String[] validArray = new String[]{"a", "b", "c"};
 	private String[][][] multiArray = new String[][][]{{{"a", "b"}}};
 	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	// arrayHasLength(int)
 	@Test
 	public void testHasLengthEmpty() {
@@ -33,6 +64,19 @@ public class ArrayMatchersTest {
 		assertThat(array, arrayHasLength(3));
 	}
 	
+	@Test
+	public void testHasLengthSameInstance() {
+		assertThat(ArrayMatchers.<String>arrayHasLength(3), sameInstance(ArrayMatchers.<Integer>arrayHasLength(3)));
+		assertThat(arrayHasLength(3), not(sameInstance(arrayHasLength(4))));
+	}
+	
+	@Test
+	public void testHasLengthNotCached() {
+		assertThat(new String[1000], arrayHasLength(1000));
+		assertThat(arrayHasLength(1000), not(sameInstance(arrayHasLength(1000))));
+		assertThat(new String[0], not(arrayHasLength(-1)));
+	}
+	
 	// arrayLength(Matcher<Integer>)
 	@Test
 	public void testLengthEqualTo() {
@@ -89,8 +133,302 @@ public class ArrayMatchersTest {
 		assertThat(validArray, arrayHasItems(validArray));
 	}
 	
+	@Test
+	public void testArrayHasItemsChangedArgument() {
+		String[] expected = new String[]{"a"};
+		Matcher<String[]> matcher = arrayHasItems(expected);
+		expected[0] = "d";
+		
+		assertThat(validArray, matcher);
+	}
+	
 	@Test
 	public void testArrayHasItemsNone() {
 		assertThat(validArray, not(arrayHasItems(notInArray)));
 	}
-}	
+	
+	// arrayItemsIn(BloomFilter<T>, Predicate<T>)
+	private List<Long> allowedIds() {
+		List<Long> ids = new ArrayList<Long>();
+		for (long id = 0; id < 100000; id += 2) {
+			ids.add(id);
+		}
+		return ids;
+	}
+	
+	private Predicate<Long> isEven = new Predicate<Long>() {
+		public boolean test(Long value) {
+			return value % 2 == 0;
+		}
+	};
+	
+	@Test
+	public void testArrayItemsIn() {
+		BloomFilter<Long> filter = BloomFilter.of(allowedIds(), 50000, 8);
+		
+		assertThat(new Long[]{0L, 42L, 99998L}, arrayItemsIn(filter, isEven));
+	}
+	
+	@Test
+	public void testArrayItemsInNotAllowed() {
+		BloomFilter<Long> filter = BloomFilter.of(allowedIds(), 50000, 8);
+		
+		assertThat(new Long[]{0L, 43L}, not(arrayItemsIn(filter, isEven)));
+	}
+	
+	@Test
+	public void testArrayItemsInFilterRejectsMostWithoutExactCheck() {
+		BloomFilter<Long> filter = BloomFilter.of(allowedIds(), 50000, 8);
+		final Set<Long> checked = new HashSet<Long>();
+		Predicate<Long> recording = new Predicate<Long>() {
+			public boolean test(Long value) {
+				checked.add(value);
+				return value % 2 == 0;
+			}
+		};
+		Long[] notAllowed = new Long[10000];
+		for (int i = 0; i < notAllowed.length; i++) {
+			notAllowed[i] = 200001L + 2 * i;
+		}
+		
+		assertThat(notAllowed, not(arrayItemsIn(filter, recording)));
+		assertThat(checked.size(), lessThan(notAllowed.length / 10));
+	}
+	
+	@Test
+	public void testArrayItemsInHashFunction() throws IOException {
+		ToLongFunction<Long> identity = new ToLongFunction<Long>() {
+			public long applyAsLong(Long value) {
+				return value;
+			}
+		};
+		File file = folder.newFile("ids64.bloom");
+		BloomFilter.of(allowedIds(), 50000, 16, identity).writeTo(file.toPath());
+		BloomFilter<Long> filter = BloomFilter.load(file.toPath(), identity);
+		
+		assertThat(new Long[]{0L, 42L, 99998L}, arrayItemsIn(filter, isEven));
+		assertThat(new Long[]{1L}, not(arrayItemsIn(filter, isEven)));
+	}
+	
+	@Test
+	public void testArrayItemsInOffHeap() {
+		BloomFilter<Long> filter = BloomFilter.createOffHeap(50000, 16);
+		for (Long id: allowedIds()) {
+			filter.add(id);
+		}
+		
+		assertThat(new Long[]{2L, 4L}, arrayItemsIn(filter, isEven));
+	}
+	
+	@Test
+	public void testArrayItemsInLoadedFromFile() throws IOException {
+		File file = folder.newFile("ids.bloom");
+		BloomFilter.of(allowedIds(), 50000, 8).writeTo(file.toPath());
+		BloomFilter<Long> filter = BloomFilter.load(file.toPath());
+		
+		assertThat(new Long[]{0L, 42L, 99998L}, arrayItemsIn(filter, isEven));
+		assertThat(new Long[]{1L}, not(arrayItemsIn(filter, isEven)));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testArrayItemsInLoadWrongFile() throws IOException {
+		File file = folder.newFile("empty.bloom");
+		
+		BloomFilter.load(file.toPath());
+	}
+	
+	// sortedArray(Comparator<T>), sortedIntArray(), sortedLongArray()
+	private Comparator<String> natural = Comparator.<String>naturalOrder();
+	
+	@Test
+	public void testSortedArray() {
+		assertThat(new String[]{"a", "b", "b", "c"}, sortedArray(natural));
+		assertThat(new String[0], sortedArray(natural));
+	}
+	
+	@Test
+	public void testSortedArrayUnsorted() {
+		assertThat(new String[]{"a", "c", "b"}, not(sortedArray(natural)));
+	}
+	
+	@Test
+	public void testSortedIntArray() {
+		assertThat(new int[]{-3, 1, 1, 7}, sortedIntArray());
+		assertThat(new int[]{1, 0}, not(sortedIntArray()));
+	}
+	
+	@Test
+	public void testSortedLongArray() {
+		assertThat(new long[]{-3, 1, 1, 7}, sortedLongArray());
+		assertThat(new long[]{1, 0}, not(sortedLongArray()));
+	}
+	
+	@Test
+	public void testSortedPrimitiveArraySameInstance() {
+		assertThat(sortedIntArray(), sameInstance(sortedIntArray()));
+		assertThat(sortedLongArray(), sameInstance(sortedLongArray()));
+	}
+	
+	// sortedArrayHasItems(Comparator<T>, T...), sortedArrayHasItems(int...), sortedArrayHasItems(long...)
+	@Test
+	public void testSortedArrayHasItems() {
+		assertThat(validArray, sortedArrayHasItems(natural, "c", "a"));
+		assertThat(validArray, not(sortedArrayHasItems(natural, "a", "d")));
+	}
+	
+	@Test
+	public void testSortedArrayHasItemsInt() {
+		int[] index = new int[1000000];
+		for (int i = 0; i < index.length; i++) {
+			index[i] = i * 3;
+		}
+		
+		assertThat(index, sortedArrayHasItems(0, 2999997, 300, 3));
+		assertThat(index, not(sortedArrayHasItems(0, 4)));
+		assertThat(index, not(sortedArrayHasItems(3000000)));
+	}
+	
+	@Test
+	public void testSortedArrayHasItemsLong() {
+		assertThat(new long[]{1, 3, 3, 5}, sortedArrayHasItems(3L, 5L, 1L));
+		assertThat(new long[]{1, 3, 3, 5}, not(sortedArrayHasItems(2L)));
+		assertThat(new long[0], not(sortedArrayHasItems(2L)));
+	}
+	
+	// sortedArrayCountInRange(Comparator<T>, T, T, Matcher<Integer>) and primitive variants
+	@Test
+	public void testSortedArrayCountInRange() {
+		String[] names = new String[]{"a", "b", "b", "c", "d"};
+		
+		assertThat(names, sortedArrayCountInRange(natural, "b", "c", equalTo(3)));
+		assertThat(names, sortedArrayCountInRange(natural, "e", "f", equalTo(0)));
+		assertThat(names, sortedArrayCountInRange(natural, "c", "a", equalTo(0)));
+	}
+	
+	@Test
+	public void testSortedArrayCountInRangeInt() {
+		int[] values = new int[]{1, 3, 3, 5, Integer.MAX_VALUE};
+		
+		assertThat(values, sortedArrayCountInRange(2, 5, equalTo(3)));
+		assertThat(values, sortedArrayCountInRange(5, Integer.MAX_VALUE, equalTo(2)));
+		assertThat(values, not(sortedArrayCountInRange(6, 7, greaterThan(0))));
+	}
+	
+	@Test
+	public void testSortedArrayCountInRangeLong() {
+		long[] values = new long[]{1, 3, 3, 5};
+		
+		assertThat(values, sortedArrayCountInRange(3L, 3L, equalTo(2)));
+		assertThat(values, sortedArrayCountInRange(Long.MIN_VALUE, Long.MAX_VALUE, equalTo(4)));
+	}
+	
+	// arrayEqualTo(T...)
+	private String mismatch(Matcher<String[]> matcher, String[] item) {
+		StringDescription description = new StringDescription();
+		matcher.describeMismatch(item, description);
+		return description.toString();
+	}
+	
+	@Test
+	public void testArrayEqualTo() {
+		assertThat(validArray, arrayEqualTo("a", "b", "c"));
+		assertThat(new String[0], arrayEqualTo());
+	}
+	
+	@Test
+	public void testArrayEqualToInserted() {
+		String[] actual = new String[]{"a", "x", "b", "c"};
+		
+		assertThat(actual, not(arrayEqualTo(validArray)));
+		assertThat(mismatch(arrayEqualTo(validArray), actual), equalTo("differs in <1> hunk: inserted at [1] [\"x\"]"));
+	}
+	
+	@Test
+	public void testArrayEqualToMissingAndReplaced() {
+		String[] actual = new String[]{"b", "x"};
+		
+		assertThat(mismatch(arrayEqualTo(validArray), actual),
+			equalTo("differs in <2> hunks: missing at [0] [\"a\"]; at [1] expected [\"c\"] but was [\"x\"]"));
+	}
+	
+	@Test
+	public void testArrayEqualToLargeArrayFewChanges() {
+		Integer[] expected = new Integer[1000000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i;
+		}
+		List<Integer> changed = new ArrayList<Integer>(Arrays.asList(expected));
+		changed.add(500000, -1);
+		changed.remove(10);
+		Integer[] actual = changed.toArray(new Integer[0]);
+		
+		ArrayDiff diff = ArrayDiff.diff(expected, actual);
+		assertThat(diff.getHunks().size(), equalTo(2));
+		assertThat(diff.isCoarse(), equalTo(false));
+	}
+	
+	@Test
+	public void testArrayEqualToBudgetFallsBackToCoarseHunks() {
+		Integer[] expected = new Integer[10000];
+		Integer[] actual = new Integer[10000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i;
+			actual[i] = i % 2 == 0 ? i : -i;
+		}
+		
+		ArrayDiff diff = ArrayDiff.diff(expected, actual, 1000);
+		assertThat(diff.isCoarse(), equalTo(true));
+		assertThat(diff.getHunks().size(), equalTo(5000));
+		StringDescription description = new StringDescription();
+		diff.describeTo(description);
+		assertThat(description.toString(), containsString("diff limit reached"));
+		assertThat(description.toString(), containsString("at [1] expected [<1>] but was [<-1>]"));
+		assertThat(description.toString(), containsString("and <4990> more hunks"));
+	}
+	
+	@Test
+	public void testArrayEqualToBudgetScatteredReplacementsStaySmall() {
+		Integer[] expected = new Integer[1000000];
+		Integer[] actual = new Integer[1000000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i;
+			actual[i] = i % 200 == 27 ? -1 : i;
+		}
+		
+		ArrayDiff diff = ArrayDiff.diff(expected, actual);
+		assertThat(diff.isCoarse(), equalTo(true));
+		assertThat(diff.getHunks().size(), equalTo(5000));
+		for (Hunk hunk: diff.getHunks()) {
+			assertThat(hunk.getExpectedEnd() - hunk.getExpectedStart(), equalTo(1));
+			assertThat(hunk.getActualEnd() - hunk.getActualStart(), equalTo(1));
+		}
+	}
+	
+	@Test
+	public void testArrayDiffReproducesActual() {
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			Integer[] expected = randomArray(random);
+			Integer[] actual = randomArray(random);
+			
+			List<Integer> patched = new ArrayList<Integer>();
+			int position = 0;
+			// small budgets exercise the fallback after the budget is used up
+			for (Hunk hunk: ArrayDiff.diff(expected, actual, run % 2 == 0 ? ArrayDiff.DEFAULT_BUDGET : run % 7).getHunks()) {
+				patched.addAll(Arrays.asList(expected).subList(position, hunk.getExpectedStart()));
+				patched.addAll(Arrays.asList(actual).subList(hunk.getActualStart(), hunk.getActualEnd()));
+				position = hunk.getExpectedEnd();
+			}
+			patched.addAll(Arrays.asList(expected).subList(position, expected.length));
+			assertThat(patched.toArray(new Integer[0]), arrayEqualTo(actual));
+		}
+	}
+	
+	private Integer[] randomArray(Random random) {
+		Integer[] array = new Integer[random.nextInt(30)];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = random.nextInt(4);
+		}
+		return array;
+	}
+}
@@ -0,0 +1,126 @@
+package de.bs.hamcrest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+import static de.bs.hamcrest.AsyncMatchers.eventually;
+import static de.bs.hamcrest.AsyncMatchers.eventuallyAsync;
+
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class AsyncMatchersTest {
+	private final AtomicInteger counter = new AtomicInteger();
+	private final Supplier<Integer> incrementing = new Supplier<Integer>() {
+		public Integer get() {
+			return counter.incrementAndGet();
+		}
+	};
+
+	// eventuallyAsync(Supplier<T>, Matcher<T>, long, TimeUnit)
+	@Test
+	public void testEventuallyAsyncMatches() {
+		CompletableFuture<Boolean> verdict = eventuallyAsync(incrementing, equalTo(5), 5, TimeUnit.SECONDS);
+
+		assertThat(verdict.join(), equalTo(true));
+	}
+
+	@Test
+	public void testEventuallyAsyncTimeout() {
+		CompletableFuture<Boolean> verdict = eventuallyAsync(incrementing, equalTo(-1), 50, TimeUnit.MILLISECONDS);
+
+		assertThat(verdict.join(), equalTo(false));
+	}
+
+	@Test
+	public void testEventuallyAsyncManyPending() throws InterruptedException {
+		final AtomicBoolean ready = new AtomicBoolean();
+		Supplier<Boolean> isReady = new Supplier<Boolean>() {
+			public Boolean get() {
+				return ready.get();
+			}
+		};
+		List<CompletableFuture<Boolean>> verdicts = new ArrayList<CompletableFuture<Boolean>>();
+		for (int i = 0; i < 1000; i++) {
+			verdicts.add(eventuallyAsync(isReady, equalTo(true), 5, TimeUnit.SECONDS));
+		}
+		Thread.sleep(20);
+		ready.set(true);
+
+		for (CompletableFuture<Boolean> verdict: verdicts) {
+			assertThat(verdict.join(), equalTo(true));
+		}
+	}
+
+	@Test(timeout=2000)
+	public void testEventuallyAsyncSupplierThrowsError() {
+		Supplier<Integer> failing = new Supplier<Integer>() {
+			public Integer get() {
+				throw new AssertionError("not yet");
+			}
+		};
+		CompletableFuture<Boolean> verdict = eventuallyAsync(failing, equalTo(1), 100, TimeUnit.MILLISECONDS);
+
+		assertThat(verdict.join(), equalTo(false));
+	}
+
+	@Test
+	public void testEventuallyAsyncNotCompletedOnSchedulerThread() {
+		CompletableFuture<Boolean> verdict = eventuallyAsync(incrementing, equalTo(2), 5, TimeUnit.SECONDS);
+		CompletableFuture<String> thread = verdict.thenApply(new Function<Boolean, String>() {
+			public String apply(Boolean matches) {
+				return Thread.currentThread().getName();
+			}
+		});
+
+		assertThat(thread.join(), not(equalTo("hamcrest-eventually")));
+	}
+
+	// eventually(Matcher<T>, long, TimeUnit)
+	@Test
+	public void testEventuallyMatches() {
+		assertThat(incrementing, eventually(equalTo(3), 5, TimeUnit.SECONDS));
+	}
+
+	@Test(timeout=2000)
+	public void testEventuallySupplierThrowsError() {
+		Supplier<Integer> failing = new Supplier<Integer>() {
+			public Integer get() {
+				throw new AssertionError("not yet");
+			}
+		};
+
+		assertThat(failing, not(eventually(equalTo(1), 100, TimeUnit.MILLISECONDS)));
+	}
+
+	@Test
+	public void testEventuallyTimeout() {
+		assertThat(incrementing, not(eventually(equalTo(-1), 50, TimeUnit.MILLISECONDS)));
+	}
+	
+	@Test
+	public void testEventuallyTimeoutPollsOnce() {
+		long start = System.nanoTime();
+		try {
+			assertThat(incrementing, eventually(equalTo(-1), 300, TimeUnit.MILLISECONDS));
+			fail("expected an AssertionError");
+		} catch (AssertionError e) {
+			// a second polling run for the mismatch description would take another 300ms
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(600L));
+			assertThat(e.getMessage(), containsString("but: timed out, last value was <" + counter.get() + ">"));
+		}
+	}
+}
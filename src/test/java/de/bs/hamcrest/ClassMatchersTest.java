@@ -7,6 +7,13 @@ import static de.bs.hamcrest.ClassMatchers.simpleClassName;
 import static de.bs.hamcrest.ClassMatchers.collectionWithGenericType;
 import static de.bs.hamcrest.ClassMatchers.collection;
 import static de.bs.hamcrest.ClassMatchers.ofType;
+import static de.bs.hamcrest.ClassMatchers.genericFieldType;
+import static de.bs.hamcrest.ClassMatchers.genericReturnType;
+import static de.bs.hamcrest.ClassMatchers.genericParameterType;
+import static de.bs.hamcrest.ClassMatchers.parameterizedType;
+import static de.bs.hamcrest.ClassMatchers.subtypeOf;
+import static de.bs.hamcrest.ClassMatchers.supertypeOf;
+import static de.bs.hamcrest.ClassMatchers.genericArrayType;
 
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.equalTo;
@@ -14,6 +21,7 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.sameInstance;
 
 import static org.junit.Assert.assertThat;
 
@@ -21,10 +29,53 @@ import java.util.List;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
 
 import org.junit.Test;
 
 public class ClassMatchersTest {
+	private static class GenericBase<T> {
+		protected List<T> items;
+		public T first() {
+			return null;
+		}
+	}
+	
+	private static class WildcardBase<T> {
+		protected List<? extends T> producer;
+		protected Comparator<? super T> consumer;
+		protected List<?> anything;
+		protected List<T>[] lists;
+		protected T[] array;
+	}
+	
+	private static class WildcardDto extends WildcardBase<Number> {
+	}
+	
+	private static class CovariantBase {
+		public List<String> get() {
+			return null;
+		}
+	}
+	
+	private static class CovariantDto extends CovariantBase {
+		@Override
+		public ArrayList<String> get() {
+			return null;
+		}
+	}
+	
+	private static class GenericDto extends GenericBase<String> {
+		private Map<String, List<Integer>> values;
+		private String name;
+		public Map<String, List<Integer>> getValues() {
+			return values;
+		}
+		public void setValues(Map<String, List<Integer>> values) {
+			this.values = values;
+		}
+	}
 	
 	// equalToClass
 	@Test
@@ -42,6 +93,12 @@ public class ClassMatchersTest {
 		assertThat(firstClass, not(equalToType(secondClass)));
 	}
 	
+	@Test
+	public void testEqualToSameInstance() {
+		assertThat(equalToType(String.class), sameInstance(equalToType(String.class)));
+		assertThat(equalToType(String.class), not(sameInstance(equalToType(Integer.class))));
+	}
+	
 	// extendsClass
 	@Test
 	public void testExtendsClassSame() {
@@ -66,6 +123,11 @@ public class ClassMatchersTest {
 		assertThat(subClass, not(extendsType(superClass)));
 	}
 	
+	@Test
+	public void testExtendsClassSameInstance() {
+		assertThat(extendsType(Collection.class), sameInstance(extendsType(Collection.class)));
+	}
+	
 	// fullQualifiedName
 	@Test
 	public void testFullQualifiedNameEqualToCorrect() {
@@ -276,4 +338,92 @@ public class ClassMatchersTest {
 		
 		assertThat(testee, ofType(equalTo(String.class)).and(startsWith("start")));
 	}
+	
+	// genericFieldType
+	@Test
+	public void testGenericFieldTypeNested() {
+		assertThat(GenericDto.class, genericFieldType("values", parameterizedType(Map.class, String.class, parameterizedType(List.class, Integer.class))));
+	}
+	
+	@Test
+	public void testGenericFieldTypeRaw() {
+		assertThat(GenericDto.class, genericFieldType("name", String.class));
+	}
+	
+	@Test
+	public void testGenericFieldTypeWrongArgument() {
+		assertThat(GenericDto.class, not(genericFieldType("values", parameterizedType(Map.class, String.class, parameterizedType(List.class, Long.class)))));
+	}
+	
+	@Test
+	public void testGenericFieldTypeResolvedFromSuperclass() {
+		assertThat(GenericDto.class, genericFieldType("items", parameterizedType(List.class, String.class)));
+	}
+	
+	@Test
+	public void testGenericFieldTypeMissing() {
+		assertThat(GenericDto.class, not(genericFieldType("missing", String.class)));
+	}
+	
+	// genericReturnType
+	@Test
+	public void testGenericReturnType() {
+		assertThat(GenericDto.class, genericReturnType("getValues", parameterizedType(Map.class, String.class, parameterizedType(List.class, Integer.class))));
+	}
+	
+	@Test
+	public void testGenericReturnTypeResolvedFromSuperclass() {
+		assertThat(GenericDto.class, genericReturnType("first", String.class));
+	}
+	
+	@Test
+	public void testGenericReturnTypeCovariantOverride() {
+		assertThat(CovariantDto.class, genericReturnType("get", parameterizedType(ArrayList.class, String.class)));
+		assertThat(CovariantDto.class, not(genericReturnType("get", parameterizedType(List.class, String.class))));
+		assertThat(CovariantBase.class, genericReturnType("get", parameterizedType(List.class, String.class)));
+	}
+	
+	// genericFieldType with wildcards
+	@Test
+	public void testGenericFieldTypeWildcardResolved() {
+		assertThat(WildcardDto.class, genericFieldType("producer", parameterizedType(List.class, subtypeOf(Number.class))));
+		assertThat(WildcardDto.class, genericFieldType("consumer", parameterizedType(Comparator.class, supertypeOf(Number.class))));
+		assertThat(WildcardDto.class, not(genericFieldType("producer", parameterizedType(List.class, Number.class))));
+	}
+	
+	@Test
+	public void testGenericFieldTypeUnboundedWildcard() {
+		assertThat(WildcardDto.class, genericFieldType("anything", parameterizedType(List.class, subtypeOf(Object.class))));
+	}
+	
+	// genericFieldType with generic arrays
+	@Test
+	public void testGenericFieldTypeGenericArrayResolved() {
+		assertThat(WildcardDto.class, genericFieldType("lists", genericArrayType(parameterizedType(List.class, Number.class))));
+		assertThat(WildcardDto.class, not(genericFieldType("lists", genericArrayType(parameterizedType(List.class, Integer.class)))));
+		assertThat(WildcardDto.class, not(genericFieldType("lists", parameterizedType(List.class, Number.class))));
+	}
+	
+	@Test
+	public void testGenericFieldTypeArrayOfClass() {
+		assertThat(WildcardDto.class, genericFieldType("array", genericArrayType(Number.class)));
+		assertThat(WildcardDto.class, genericFieldType("array", Number[].class));
+	}
+	
+	// genericParameterType
+	@Test
+	public void testGenericParameterType() {
+		assertThat(GenericDto.class, genericParameterType("setValues", 0, parameterizedType(Map.class, String.class, parameterizedType(List.class, Integer.class))));
+	}
+	
+	@Test
+	public void testGenericParameterTypeIndexOutOfRange() {
+		assertThat(GenericDto.class, not(genericParameterType("setValues", 1, String.class)));
+	}
+	
+	// parameterizedType
+	@Test(expected=IllegalArgumentException.class)
+	public void testParameterizedTypeWrongArgumentCount() {
+		parameterizedType(Map.class, String.class);
+	}
 }
@@ -0,0 +1,126 @@
+package de.bs.hamcrest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import static de.bs.hamcrest.SnapshotMatchers.matchesSnapshot;
+import static de.bs.hamcrest.SnapshotMatchers.writeSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotMatchersTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// 3 chunks of 1 MiB, the last one partial
+	private long[] golden = new long[300000];
+	private Path file;
+
+	@Before
+	public void setUp() throws IOException {
+		for (int i = 0; i < golden.length; i++) {
+			golden[i] = i * 31L;
+		}
+		file = folder.getRoot().toPath().resolve("golden.snapshot");
+		writeSnapshot(file, golden);
+	}
+
+	private String mismatch(Matcher<Object> matcher, Object item) {
+		StringDescription description = new StringDescription();
+		matcher.describeMismatch(item, description);
+		return description.toString();
+	}
+
+	// matchesSnapshot(Path)
+	@Test
+	public void testMatchesSnapshotUnchanged() {
+		assertThat(golden.clone(), matchesSnapshot(file));
+	}
+
+	@Test
+	public void testMatchesSnapshotChangedElement() {
+		long[] changed = golden.clone();
+		changed[200000] = -1;
+
+		assertThat(changed, not(matchesSnapshot(file)));
+		assertThat(mismatch(matchesSnapshot(file), changed), containsString("chunk <1>"));
+		assertThat(mismatch(matchesSnapshot(file), changed), containsString("first at <200000L>"));
+	}
+
+	@Test
+	public void testMatchesSnapshotComparesOnce() throws IOException {
+		long[] changed = golden.clone();
+		changed[200000] = -1;
+		Matcher<Object> matcher = matchesSnapshot(file);
+
+		assertThat(matcher.matches(changed), equalTo(false));
+		// describing the mismatch must not read the snapshot again
+		Files.delete(file);
+		assertThat(mismatch(matcher, changed), containsString("first at <200000L>"));
+	}
+
+	@Test
+	public void testMatchesSnapshotShorter() {
+		long[] shorter = Arrays.copyOf(golden, golden.length - 1);
+
+		assertThat(shorter, not(matchesSnapshot(file)));
+		assertThat(mismatch(matchesSnapshot(file), shorter), containsString("snapshot length is <300000L> but was <299999>"));
+	}
+
+	@Test
+	public void testMatchesSnapshotOtherType() {
+		assertThat(new int[]{1, 2}, not(matchesSnapshot(file)));
+	}
+
+	@Test
+	public void testMatchesSnapshotUnsupportedType() {
+		assertThat(new String[]{"a"}, not(matchesSnapshot(file)));
+	}
+
+	@Test
+	public void testMatchesSnapshotMissingFile() {
+		assertThat(golden, not(matchesSnapshot(folder.getRoot().toPath().resolve("missing.snapshot"))));
+	}
+
+	@Test
+	public void testMatchesSnapshotDoubleAndByte() throws IOException {
+		Path doubles = folder.getRoot().toPath().resolve("doubles.snapshot");
+		Path bytes = folder.getRoot().toPath().resolve("bytes.snapshot");
+		writeSnapshot(doubles, new double[]{1.5, 2.5});
+		writeSnapshot(bytes, new byte[]{1, 2, 3});
+
+		assertThat(new double[]{1.5, 2.5}, matchesSnapshot(doubles));
+		assertThat(new double[]{1.5, 3.5}, not(matchesSnapshot(doubles)));
+		assertThat(new byte[]{1, 2, 3}, matchesSnapshot(bytes));
+		assertThat(new byte[0], not(matchesSnapshot(bytes)));
+	}
+
+	@Test(expected=UncheckedIOException.class)
+	public void testMatchesSnapshotCorruptChunkSize() throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+		try {
+			// chunk size of 4 bytes is smaller than one long element
+			channel.write(ByteBuffer.allocate(4).putInt(0, 4), 8);
+		} finally {
+			channel.close();
+		}
+
+		assertThat(golden, matchesSnapshot(file));
+	}
+}